@@ -1,7 +1,13 @@
 package com.sps.nurul_ikhlas.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,9 +15,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Configuration
 public class AppConfig {
 
+    @Value("${app.http.connect-timeout-ms}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http.read-timeout-ms}")
+    private long readTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    /**
+     * Backed by the JDK HttpClient, which blocks without pinning a carrier
+     * thread when requests run on virtual threads.
+     */
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        HttpClient.Builder httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreadsEnabled) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
     }
 
     @Bean
@@ -0,0 +1,73 @@
+package com.sps.nurul_ikhlas.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs JFR jdk.VirtualThreadPinned events, i.e. virtual threads that blocked
+ * while holding a monitor (synchronized blocks in drivers, Hibernate, etc.)
+ * and therefore held their carrier thread. Only active in virtual-thread mode.
+ */
+@Component
+@ConditionalOnProperty(name = { "spring.threads.virtual.enabled",
+        "app.virtual-threads.pinning-monitor.enabled" }, havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final int MAX_LOGGED_FRAMES = 12;
+
+    @Value("${app.virtual-threads.pinning-monitor.threshold-ms}")
+    private long thresholdMs;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long count = pinnedEvents.incrementAndGet();
+        String stack = "";
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            stack = frames.stream()
+                    .limit(MAX_LOGGED_FRAMES)
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            + ":" + frame.getLineNumber())
+                    .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        }
+        log.warn("Virtual thread pinned for {} ms (#{}){}", event.getDuration().toMillis(), count, stack);
+    }
+}
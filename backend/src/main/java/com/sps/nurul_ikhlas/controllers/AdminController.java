@@ -21,7 +21,9 @@ import com.sps.nurul_ikhlas.payload.ApiResponse;
 import com.sps.nurul_ikhlas.payload.request.AcademicYearRequest;
 import com.sps.nurul_ikhlas.payload.request.BillTypeRequest;
 import com.sps.nurul_ikhlas.payload.request.UniformRequest;
+import com.sps.nurul_ikhlas.payload.response.ReferenceDataCacheStatsResponse;
 import com.sps.nurul_ikhlas.services.AdminService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +35,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminController {
 
     private final AdminService adminService;
+    private final ReferenceDataService referenceDataService;
 
     // =========================================
     // STUDENT MANAGEMENT
@@ -148,4 +151,21 @@ public class AdminController {
         adminService.deleteUniform(id);
         return ResponseEntity.ok(ApiResponse.success("Seragam berhasil dihapus"));
     }
+
+    // =========================================
+    // REFERENCE DATA CACHE
+    // =========================================
+
+    @GetMapping("/reference-cache/stats")
+    public ResponseEntity<ApiResponse<ReferenceDataCacheStatsResponse>> getReferenceCacheStats() {
+        ReferenceDataCacheStatsResponse stats = referenceDataService.getCacheStats();
+        return ResponseEntity.ok(ApiResponse.success("Statistik cache data referensi", stats));
+    }
+
+    @PostMapping("/reference-cache/invalidate")
+    public ResponseEntity<ApiResponse<Void>> invalidateReferenceCache() {
+        referenceDataService.invalidateBillTypes();
+        referenceDataService.invalidateAcademicYears();
+        return ResponseEntity.ok(ApiResponse.success("Cache data referensi berhasil dikosongkan"));
+    }
 }
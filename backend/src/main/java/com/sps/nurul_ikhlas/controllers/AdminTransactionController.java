@@ -1,22 +1,40 @@
 package com.sps.nurul_ikhlas.controllers;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.sps.nurul_ikhlas.models.entities.BillRun;
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
 import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
 import com.sps.nurul_ikhlas.payload.ApiResponse;
+import com.sps.nurul_ikhlas.payload.request.BulkCancelOrderRequest;
+import com.sps.nurul_ikhlas.payload.response.BulkCancelOrderResponse;
+import com.sps.nurul_ikhlas.payload.response.ReconciliationStatsResponse;
+import com.sps.nurul_ikhlas.payload.response.StudentArrearsPageResponse;
 import com.sps.nurul_ikhlas.payload.response.StudentArrearsResponse;
+import com.sps.nurul_ikhlas.payload.response.UniformOrderPageResponse;
 import com.sps.nurul_ikhlas.services.AdminTransactionService;
+import com.sps.nurul_ikhlas.services.ArrearsSnapshotService;
+import com.sps.nurul_ikhlas.services.BillRunService;
+import com.sps.nurul_ikhlas.services.PaymentReconciliationService;
+import com.sps.nurul_ikhlas.services.StudentBalanceService;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -26,6 +44,10 @@ import lombok.RequiredArgsConstructor;
 public class AdminTransactionController {
 
     private final AdminTransactionService adminTransactionService;
+    private final StudentBalanceService studentBalanceService;
+    private final ArrearsSnapshotService arrearsSnapshotService;
+    private final PaymentReconciliationService paymentReconciliationService;
+    private final BillRunService billRunService;
 
     @GetMapping("/orders/uniform")
     public ResponseEntity<ApiResponse<List<UniformOrder>>> getAllUniformOrders(
@@ -34,6 +56,19 @@ public class AdminTransactionController {
         return ResponseEntity.ok(ApiResponse.success("Daftar pesanan seragam", orders));
     }
 
+    @GetMapping("/orders/uniform/page")
+    public ResponseEntity<ApiResponse<UniformOrderPageResponse>> getUniformOrderPage(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) PaymentStatus paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        UniformOrderPageResponse page = adminTransactionService.getUniformOrderPage(
+                status, paymentStatus, from, to, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Daftar pesanan seragam", page));
+    }
+
     @PutMapping("/orders/uniform/{orderId}/status")
     public ResponseEntity<ApiResponse<UniformOrder>> updateOrderStatus(
             @PathVariable String orderId,
@@ -42,9 +77,77 @@ public class AdminTransactionController {
         return ResponseEntity.ok(ApiResponse.success("Status pesanan berhasil diperbarui", order));
     }
 
+    @PostMapping("/orders/uniform/cancel")
+    public ResponseEntity<ApiResponse<BulkCancelOrderResponse>> cancelUniformOrders(
+            @Valid @RequestBody BulkCancelOrderRequest request) {
+        BulkCancelOrderResponse result = adminTransactionService.cancelOrders(request.getOrderIds());
+        return ResponseEntity.ok(ApiResponse.success("Pesanan berhasil dibatalkan", result));
+    }
+
     @GetMapping("/finance/arrears")
     public ResponseEntity<ApiResponse<List<StudentArrearsResponse>>> getStudentArrears() {
         List<StudentArrearsResponse> arrears = adminTransactionService.getStudentArrears();
         return ResponseEntity.ok(ApiResponse.success("Daftar tunggakan siswa", arrears));
     }
+
+    @GetMapping("/finance/arrears/page")
+    public ResponseEntity<ApiResponse<StudentArrearsPageResponse>> getStudentArrearsPage(
+            @RequestParam(required = false) String classId,
+            @RequestParam(required = false) String academicYearId,
+            @RequestParam(required = false) Integer minMonthsUnpaid,
+            @RequestParam(required = false) StudentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        StudentArrearsPageResponse page = adminTransactionService.getStudentArrearsPage(
+                classId, academicYearId, minMonthsUnpaid, status, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Daftar tunggakan siswa", page));
+    }
+
+    @PostMapping("/finance/balances/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildBalances() {
+        int rows = studentBalanceService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Saldo pembayaran siswa berhasil dihitung ulang", rows));
+    }
+
+    @PostMapping("/finance/balances/{studentId}/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildStudentBalance(@PathVariable String studentId) {
+        int rows = studentBalanceService.rebuildStudent(studentId);
+        arrearsSnapshotService.markDirty(studentId);
+        return ResponseEntity.ok(ApiResponse.success("Saldo pembayaran siswa berhasil dihitung ulang", rows));
+    }
+
+    @PostMapping("/finance/reconciliation/run")
+    public ResponseEntity<ApiResponse<ReconciliationStatsResponse>> runReconciliation() {
+        ReconciliationStatsResponse stats = paymentReconciliationService.reconcile();
+        return ResponseEntity.ok(ApiResponse.success("Rekonsiliasi pembayaran selesai", stats));
+    }
+
+    @GetMapping("/finance/reconciliation/stats")
+    public ResponseEntity<ApiResponse<ReconciliationStatsResponse>> getReconciliationStats() {
+        ReconciliationStatsResponse stats = paymentReconciliationService.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Statistik rekonsiliasi pembayaran", stats));
+    }
+
+    @PostMapping("/finance/bill-runs")
+    public ResponseEntity<ApiResponse<BillRun>> startBillRun(@RequestParam(required = false) YearMonth month) {
+        BillRun run = billRunService.start(month != null ? month : YearMonth.now());
+        return ResponseEntity.ok(ApiResponse.success("Pembuatan tagihan bulanan dimulai", run));
+    }
+
+    @GetMapping("/finance/bill-runs")
+    public ResponseEntity<ApiResponse<List<BillRun>>> getBillRuns() {
+        return ResponseEntity.ok(ApiResponse.success("Daftar pembuatan tagihan bulanan", billRunService.getRuns()));
+    }
+
+    @GetMapping("/finance/bill-runs/{month}")
+    public ResponseEntity<ApiResponse<BillRun>> getBillRun(@PathVariable YearMonth month) {
+        BillRun run = billRunService.getRun(month);
+        return ResponseEntity.ok(ApiResponse.success("Progres pembuatan tagihan bulanan", run));
+    }
+
+    @PostMapping("/finance/arrears/snapshot/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildArrearsSnapshot() {
+        int rows = arrearsSnapshotService.rebuildAll();
+        return ResponseEntity.ok(ApiResponse.success("Snapshot tunggakan berhasil dihitung ulang", rows));
+    }
 }
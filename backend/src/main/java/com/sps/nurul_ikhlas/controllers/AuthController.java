@@ -40,9 +40,9 @@ public class AuthController {
                                                 loginRequest.getPassword()));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                String jwt = jwtUtils.generateJwtToken(loginRequest.getUsername());
-
                 UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                String jwt = jwtUtils.generateJwtToken(userDetails);
+
                 String role = userDetails.getAuthorities().stream()
                                 .findFirst()
                                 .map(item -> item.getAuthority().replace("ROLE_", ""))
@@ -1,16 +1,21 @@
 package com.sps.nurul_ikhlas.controllers;
 
-import java.security.Principal;
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
 import com.sps.nurul_ikhlas.models.entities.Uniform;
@@ -24,9 +29,13 @@ import com.sps.nurul_ikhlas.payload.request.PaymentRequest;
 import com.sps.nurul_ikhlas.payload.request.SppPaymentRequest;
 import com.sps.nurul_ikhlas.payload.response.MonthlyBillDetailResponse;
 import com.sps.nurul_ikhlas.payload.response.MonthlyStatusResponse;
+import com.sps.nurul_ikhlas.payload.response.ParentFinanceOverviewResponse;
 import com.sps.nurul_ikhlas.payload.response.SppInfoResponse;
+import com.sps.nurul_ikhlas.payload.response.UniformCatalogSnapshot;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 import com.sps.nurul_ikhlas.services.PaymentService;
 import com.sps.nurul_ikhlas.services.StudentTransactionService;
+import com.sps.nurul_ikhlas.services.UniformCatalogService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -39,100 +48,134 @@ public class ParentTransactionController {
 
     private final StudentTransactionService transactionService;
     private final PaymentService paymentService;
+    private final UniformCatalogService uniformCatalogService;
 
     @GetMapping("/uniforms")
-    public ResponseEntity<ApiResponse<List<Uniform>>> getAvailableUniforms() {
-        List<Uniform> uniforms = transactionService.getAvailableUniforms();
-        return ResponseEntity.ok(ApiResponse.success("Daftar seragam tersedia", uniforms));
+    public ResponseEntity<ApiResponse<List<Uniform>>> getAvailableUniforms(WebRequest webRequest) {
+        UniformCatalogSnapshot catalog = uniformCatalogService.getCatalog();
+        if (webRequest.checkNotModified(catalog.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        // no-cache keeps Spring Security from sending no-store, so browsers revalidate with If-None-Match
+        return ResponseEntity.ok()
+                .eTag(catalog.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success("Daftar seragam tersedia", catalog.getUniforms()));
     }
 
     @PostMapping("/orders/uniform")
     public ResponseEntity<ApiResponse<UniformOrder>> createUniformOrder(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
             @Valid @RequestBody CreateUniformOrderRequest request) {
-        UniformOrder order = transactionService.createUniformOrder(principal.getName(), request);
+        UniformOrder order = transactionService.createUniformOrder(currentUser, request);
         return ResponseEntity.ok(ApiResponse.success("Pesanan seragam berhasil dibuat", order));
     }
 
     @GetMapping("/orders/uniform")
-    public ResponseEntity<ApiResponse<List<UniformOrder>>> getMyUniformOrders(Principal principal) {
-        List<UniformOrder> orders = transactionService.getMyUniformOrders(principal.getName());
+    public ResponseEntity<ApiResponse<List<UniformOrder>>> getMyUniformOrders(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        List<UniformOrder> orders = transactionService.getMyUniformOrders(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Riwayat pesanan seragam", orders));
     }
 
     // Payment Endpoints
     @PostMapping("/payments/create")
     public ResponseEntity<ApiResponse<PaymentTransaction>> createPayment(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequest request) throws Exception {
-        PaymentTransaction transaction = paymentService.createPayment(principal.getName(), request);
+        PaymentTransaction transaction = paymentService.createPayment(currentUser, request, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Invoice pembayaran berhasil dibuat", transaction));
     }
 
     @GetMapping("/payments/history")
-    public ResponseEntity<ApiResponse<List<PaymentTransaction>>> getPaymentHistory(Principal principal) {
-        List<PaymentTransaction> transactions = paymentService.getPaymentHistory(principal.getName());
+    public ResponseEntity<ApiResponse<List<PaymentTransaction>>> getPaymentHistory(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        List<PaymentTransaction> transactions = paymentService.getPaymentHistory(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Riwayat transaksi", transactions));
     }
 
+    @GetMapping("/payments/{transactionId}")
+    public ResponseEntity<ApiResponse<PaymentTransaction>> getPayment(
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @PathVariable String transactionId) {
+        PaymentTransaction transaction = paymentService.getPayment(currentUser, transactionId);
+        return ResponseEntity.ok(ApiResponse.success("Detail transaksi", transaction));
+    }
+
     // SPP Endpoints (Legacy)
     @GetMapping("/finance/spp-info")
-    public ResponseEntity<ApiResponse<SppInfoResponse>> getSppInfo(Principal principal) {
-        SppInfoResponse info = transactionService.getSppInfo(principal.getName());
+    public ResponseEntity<ApiResponse<SppInfoResponse>> getSppInfo(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        SppInfoResponse info = transactionService.getSppInfo(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Informasi SPP", info));
     }
 
     @PostMapping("/payments/spp")
     public ResponseEntity<ApiResponse<PaymentTransaction>> createSppPayment(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody SppPaymentRequest request) throws Exception {
-        PaymentTransaction transaction = transactionService.createSppPayment(principal.getName(), request.getMonths());
+        PaymentTransaction transaction = transactionService.createSppPayment(currentUser, request.getMonths(),
+                idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Invoice SPP berhasil dibuat", transaction));
     }
 
     @GetMapping("/payments/spp-history")
-    public ResponseEntity<ApiResponse<List<PaymentTransaction>>> getSppHistory(Principal principal) {
-        List<PaymentTransaction> transactions = transactionService.getSppHistory(principal.getName());
+    public ResponseEntity<ApiResponse<List<PaymentTransaction>>> getSppHistory(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        List<PaymentTransaction> transactions = transactionService.getSppHistory(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Riwayat pembayaran SPP", transactions));
     }
 
     // Monthly Infaq/Kas Endpoints (New)
     @GetMapping("/finance/monthly-status")
-    public ResponseEntity<ApiResponse<MonthlyStatusResponse>> getMonthlyStatus(Principal principal) {
-        MonthlyStatusResponse status = transactionService.getMonthlyStatus(principal.getName());
+    public ResponseEntity<ApiResponse<MonthlyStatusResponse>> getMonthlyStatus(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        MonthlyStatusResponse status = transactionService.getMonthlyStatus(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Status tagihan bulanan", status));
     }
 
     @PostMapping("/payments/monthly")
     public ResponseEntity<ApiResponse<PaymentTransaction>> createMonthlyPayment(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody MonthlyPaymentRequest request) throws Exception {
         PaymentTransaction transaction = transactionService.createMonthlyPayment(
-                principal.getName(), request.getBillCategory(), request.getNumberOfMonths());
+                currentUser, request.getBillCategory(), request.getNumberOfMonths(), idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Invoice tagihan bulanan berhasil dibuat", transaction));
     }
 
     @GetMapping("/payments/monthly-history")
     public ResponseEntity<ApiResponse<List<PaymentTransaction>>> getMonthlyHistory(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
             @RequestParam BillCategory category) {
-        List<PaymentTransaction> transactions = transactionService.getMonthlyPaymentHistory(principal.getName(),
+        List<PaymentTransaction> transactions = transactionService.getMonthlyPaymentHistory(currentUser,
                 category);
         return ResponseEntity.ok(ApiResponse.success("Riwayat pembayaran " + category, transactions));
     }
 
     // Monthly Bill Details (New - with per-month status)
     @GetMapping("/finance/monthly-details")
-    public ResponseEntity<ApiResponse<MonthlyBillDetailResponse>> getMonthlyDetails(Principal principal) {
-        MonthlyBillDetailResponse details = transactionService.getMonthlyBillDetails(principal.getName());
+    public ResponseEntity<ApiResponse<MonthlyBillDetailResponse>> getMonthlyDetails(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        MonthlyBillDetailResponse details = transactionService.getMonthlyBillDetails(currentUser);
         return ResponseEntity.ok(ApiResponse.success("Detail tagihan bulanan", details));
     }
 
+    @GetMapping("/finance/overview")
+    public ResponseEntity<ApiResponse<ParentFinanceOverviewResponse>> getFinanceOverview(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        ParentFinanceOverviewResponse overview = transactionService.getFinanceOverview(currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Ringkasan keuangan", overview));
+    }
+
     @PostMapping("/payments/pay-bills")
     public ResponseEntity<ApiResponse<PaymentTransaction>> paySelectedBills(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody PayBillRequest request) throws Exception {
-        PaymentTransaction transaction = transactionService.paySelectedBills(principal.getName(), request);
+        PaymentTransaction transaction = transactionService.paySelectedBills(currentUser, request, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Invoice berhasil dibuat", transaction));
     }
 }
@@ -12,7 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sps.nurul_ikhlas.payload.ApiResponse;
-import com.sps.nurul_ikhlas.services.PaymentService;
+import com.sps.nurul_ikhlas.services.WebhookInboxService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,22 +23,21 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PaymentController {
 
-    private final PaymentService paymentService;
+    private final WebhookInboxService webhookInboxService;
 
     @Value("${xendit.webhook-verification-token}")
     private String webhookVerificationToken;
 
     /**
      * Xendit Webhook Callback Handler
-     * This endpoint receives payment notifications from Xendit
+     * This endpoint receives payment notifications from Xendit. The callback is
+     * only stored here; WebhookInboxScheduler applies it shortly after.
      */
     @PostMapping("/xendit-callback")
     public ResponseEntity<ApiResponse<Void>> handleXenditCallback(
             @RequestHeader(value = "x-callback-token", required = false) String callbackToken,
             @RequestBody Map<String, Object> payload) {
 
-        log.info("Received Xendit callback: {}", payload);
-
         // Verify webhook token
         if (webhookVerificationToken != null && !webhookVerificationToken.isEmpty()
                 && !webhookVerificationToken.equals("YOUR_WEBHOOK_VERIFICATION_TOKEN")) {
@@ -59,9 +58,13 @@ public class PaymentController {
                         .body(ApiResponse.error("Missing required fields"));
             }
 
-            paymentService.handleWebhookCallback(invoiceId, status);
+            if (!webhookInboxService.enqueue(invoiceId, status)) {
+                log.info("Ignoring replayed Xendit callback - Invoice: {}, Status: {}", invoiceId, status);
+                return ResponseEntity.ok(ApiResponse.success("Callback already processed"));
+            }
+            log.info("Received Xendit callback - Invoice: {}, Status: {}", invoiceId, status);
 
-            return ResponseEntity.ok(ApiResponse.success("Callback processed successfully"));
+            return ResponseEntity.ok(ApiResponse.success("Callback received"));
 
         } catch (Exception e) {
             log.error("Error processing callback: {}", e.getMessage());
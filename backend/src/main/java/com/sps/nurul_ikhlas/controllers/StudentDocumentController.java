@@ -1,12 +1,11 @@
 package com.sps.nurul_ikhlas.controllers;
 
-import java.security.Principal;
-
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,11 +15,11 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.sps.nurul_ikhlas.models.entities.Student;
-import com.sps.nurul_ikhlas.models.entities.User;
 import com.sps.nurul_ikhlas.models.enums.DocumentType;
+import com.sps.nurul_ikhlas.models.enums.Role;
 import com.sps.nurul_ikhlas.payload.ApiResponse;
 import com.sps.nurul_ikhlas.repositories.StudentRepository;
-import com.sps.nurul_ikhlas.repositories.UserRepository;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 import com.sps.nurul_ikhlas.utils.FileStorageService;
 
 import lombok.RequiredArgsConstructor;
@@ -33,13 +32,12 @@ import lombok.extern.slf4j.Slf4j;
 public class StudentDocumentController {
 
     private final FileStorageService fileStorageService;
-    private final UserRepository userRepository;
     private final StudentRepository studentRepository;
 
     @PostMapping("/parent/documents/upload")
     @PreAuthorize("hasRole('ORTU')")
     public ResponseEntity<ApiResponse<String>> uploadDocument(
-            Principal principal,
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
             @RequestParam("file") MultipartFile file,
             @RequestParam("docType") DocumentType docType) {
 
@@ -58,10 +56,7 @@ public class StudentDocumentController {
             }
 
             // Get student
-            User user = userRepository.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User tidak ditemukan"));
-
-            Student student = studentRepository.findByPersonId(user.getPerson().getId())
+            Student student = studentRepository.findById(currentUser.requireStudentId())
                     .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan"));
 
             // Store file
@@ -104,11 +99,9 @@ public class StudentDocumentController {
 
     @GetMapping("/parent/documents/status")
     @PreAuthorize("hasRole('ORTU')")
-    public ResponseEntity<ApiResponse<DocumentStatusResponse>> getDocumentStatus(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User tidak ditemukan"));
-
-        Student student = studentRepository.findByPersonId(user.getPerson().getId())
+    public ResponseEntity<ApiResponse<DocumentStatusResponse>> getDocumentStatus(
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        Student student = studentRepository.findById(currentUser.requireStudentId())
                 .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan"));
 
         DocumentStatusResponse status = new DocumentStatusResponse(
@@ -127,20 +120,12 @@ public class StudentDocumentController {
     public ResponseEntity<Resource> downloadDocument(
             @PathVariable String studentId,
             @PathVariable String filename,
-            Principal principal) {
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
 
         try {
             // Validate access (owner or admin)
-            User user = userRepository.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User tidak ditemukan"));
-
-            // If not admin, verify ownership
-            if (!user.getRole().name().equals("ADMIN")) {
-                Student student = studentRepository.findByPersonId(user.getPerson().getId())
-                        .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan"));
-                if (!student.getId().equals(studentId)) {
-                    return ResponseEntity.status(403).build();
-                }
+            if (currentUser.getRole() != Role.ADMIN && !studentId.equals(currentUser.getStudentId())) {
+                return ResponseEntity.status(403).build();
             }
 
             String filePath = studentId + "/" + filename;
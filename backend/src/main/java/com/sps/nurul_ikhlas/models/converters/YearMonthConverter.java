@@ -0,0 +1,24 @@
+package com.sps.nurul_ikhlas.models.converters;
+
+import java.time.YearMonth;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link YearMonth} as "yyyy-MM" so values sort (and range-compare)
+ * lexicographically in the database.
+ */
+@Converter(autoApply = true)
+public class YearMonthConverter implements AttributeConverter<YearMonth, String> {
+
+    @Override
+    public String convertToDatabaseColumn(YearMonth attribute) {
+        return attribute != null ? attribute.toString() : null;
+    }
+
+    @Override
+    public YearMonth convertToEntityAttribute(String dbData) {
+        return dbData != null ? YearMonth.parse(dbData) : null;
+    }
+}
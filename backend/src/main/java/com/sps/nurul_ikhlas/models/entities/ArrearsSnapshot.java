@@ -0,0 +1,97 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Precomputed arrears per student, refreshed by the arrears scheduler so the
+ * admin report reads one table instead of recomputing from the ledger.
+ */
+@Data
+@Table(name = "arrears_snapshots", uniqueConstraints = @UniqueConstraint(name = "uk_arrears_snapshot_student", columnNames = "student_id"), indexes = {
+        @Index(name = "idx_arrears_snapshot_spp", columnList = "spp_months_unpaid, student_id"),
+        @Index(name = "idx_arrears_snapshot_class", columnList = "class_id"),
+        @Index(name = "idx_arrears_snapshot_year", columnList = "academic_year_id") })
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrearsSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "student_name")
+    private String studentName;
+
+    @Column(name = "class_id")
+    private String classId;
+
+    @Column(name = "class_name")
+    private String className;
+
+    @Column(name = "academic_year_id")
+    private String academicYearId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "student_status")
+    private StudentStatus studentStatus;
+
+    @Column(name = "months_active", nullable = false)
+    private Integer monthsActive;
+
+    @Column(name = "spp_amount")
+    private Double sppAmount;
+
+    @Column(name = "spp_months_unpaid", nullable = false)
+    private Integer sppMonthsUnpaid;
+
+    @Column(name = "spp_total_arrears", nullable = false)
+    private Double sppTotalArrears;
+
+    @Column(name = "infaq_months_unpaid", nullable = false)
+    private Integer infaqMonthsUnpaid;
+
+    @Column(name = "infaq_total_arrears", nullable = false)
+    private Double infaqTotalArrears;
+
+    @Column(name = "kas_months_unpaid", nullable = false)
+    private Integer kasMonthsUnpaid;
+
+    @Column(name = "kas_total_arrears", nullable = false)
+    private Double kasTotalArrears;
+
+    @Column(name = "total_arrears", nullable = false)
+    private Double totalArrears;
+
+    @Column(name = "spp_is_critical", nullable = false)
+    private Boolean sppIsCritical;
+
+    @Column(name = "infaq_is_critical", nullable = false)
+    private Boolean infaqIsCritical;
+
+    @Column(name = "kas_is_critical", nullable = false)
+    private Boolean kasIsCritical;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,83 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import com.sps.nurul_ikhlas.models.enums.BillRunStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of the monthly bill run that pre-generates INFAQ/KAS invoices.
+ * Students are billed in id order and {@code lastStudentId} is saved after
+ * every page, so an interrupted run resumes where it stopped.
+ */
+@Data
+@Table(name = "bill_runs", uniqueConstraints = @UniqueConstraint(name = "uk_bill_run_month", columnNames = "bill_month"))
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "bill_month", nullable = false, length = 7)
+    private YearMonth billMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private BillRunStatus status = BillRunStatus.RUNNING;
+
+    @Column(name = "last_student_id")
+    private String lastStudentId;
+
+    @Column(name = "total_students", nullable = false)
+    @Builder.Default
+    private Long totalStudents = 0L;
+
+    @Column(name = "processed_students", nullable = false)
+    @Builder.Default
+    private Long processedStudents = 0L;
+
+    @Column(name = "invoices_created", nullable = false)
+    @Builder.Default
+    private Long invoicesCreated = 0L;
+
+    // Already paid, or an open invoice for the same bill existed
+    @Column(name = "invoices_skipped", nullable = false)
+    @Builder.Default
+    private Long invoicesSkipped = 0L;
+
+    @Column(name = "invoices_failed", nullable = false)
+    @Builder.Default
+    private Long invoicesFailed = 0L;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,72 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import com.sps.nurul_ikhlas.models.enums.InvoiceOutboxStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Xendit invoice still to be created for a PENDING payment transaction. Written
+ * in the same database transaction as the payment and drained by the invoice
+ * outbox scheduler, so no request holds a connection while Xendit responds.
+ */
+@Data
+@Table(name = "invoice_outbox", uniqueConstraints = @UniqueConstraint(name = "uk_invoice_outbox_transaction", columnNames = "transaction_id"), indexes = {
+        @Index(name = "idx_invoice_outbox_due", columnList = "status, next_attempt_at") })
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private String transactionId;
+
+    @Column(name = "external_id", nullable = false)
+    private String externalId;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private InvoiceOutboxStatus status = InvoiceOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
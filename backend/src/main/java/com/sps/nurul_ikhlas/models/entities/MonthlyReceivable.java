@@ -0,0 +1,66 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a student owes for one month of a recurring bill (INFAQ, KAS, SPP) and
+ * how much of it has been covered by PAID transactions.
+ */
+@Data
+@Table(name = "monthly_receivables", uniqueConstraints = @UniqueConstraint(name = "uk_receivable_student_type_month", columnNames = {
+        "student_id", "payment_type", "bill_month" }))
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyReceivable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", nullable = false)
+    private PaymentType paymentType;
+
+    @Column(name = "bill_month", nullable = false, length = 7)
+    private YearMonth billMonth;
+
+    @Column(name = "amount_due", nullable = false)
+    private Double amountDue;
+
+    @Column(name = "amount_paid", nullable = false)
+    @Builder.Default
+    private Double amountPaid = 0.0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PaymentStatus status = PaymentStatus.UNPAID;
+
+    @Column(name = "last_transaction_id")
+    private String lastTransactionId;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+}
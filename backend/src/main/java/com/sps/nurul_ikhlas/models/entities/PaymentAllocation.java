@@ -0,0 +1,42 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Table(name = "payment_allocations", indexes = {
+        @Index(name = "idx_allocation_transaction", columnList = "transaction_id"),
+        @Index(name = "idx_allocation_receivable", columnList = "receivable_id") })
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentAllocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private String transactionId;
+
+    @Column(name = "receivable_id", nullable = false)
+    private String receivableId;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "allocated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime allocatedAt = LocalDateTime.now();
+}
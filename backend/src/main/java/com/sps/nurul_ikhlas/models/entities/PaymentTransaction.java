@@ -12,16 +12,24 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Table(name = "payment_transactions")
+@Table(name = "payment_transactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_tx_idempotency", columnNames = { "student_id", "idempotency_key" }),
+        @UniqueConstraint(name = "uk_payment_tx_xendit_invoice", columnNames = "xendit_invoice_id")
+}, indexes = {
+        @Index(name = "idx_payment_tx_reuse", columnList = "student_id, payment_type, status, amount, created_at"),
+        @Index(name = "idx_payment_tx_status_created", columnList = "status, created_at")
+})
 @Entity
 @Builder
 @NoArgsConstructor
@@ -56,6 +64,9 @@ public class PaymentTransaction {
     @Builder.Default
     private TransactionStatus status = TransactionStatus.PENDING;
 
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
     @Column(name = "created_at", nullable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
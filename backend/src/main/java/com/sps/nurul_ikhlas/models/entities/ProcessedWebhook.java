@@ -0,0 +1,42 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * (invoice, status) pair whose callback has already been applied. SETTLED is
+ * stored as PAID since both mean the same transition.
+ */
+@Data
+@Table(name = "processed_webhooks", uniqueConstraints = @UniqueConstraint(name = "uk_processed_webhook", columnNames = {
+        "invoice_id", "status" }))
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedWebhook {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private String invoiceId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "processed_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime processedAt = LocalDateTime.now();
+}
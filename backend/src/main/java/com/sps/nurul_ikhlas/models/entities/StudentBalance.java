@@ -0,0 +1,53 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running total of PAID transaction amounts per student and payment type.
+ * Maintained incrementally by the payment webhook so finance views never
+ * have to scan the full transaction history.
+ */
+@Data
+@Table(name = "student_balances", uniqueConstraints = @UniqueConstraint(name = "uk_student_balance_student_type", columnNames = {
+        "student_id", "payment_type" }), indexes = @Index(name = "idx_student_balance_type", columnList = "payment_type"))
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", nullable = false)
+    private PaymentType paymentType;
+
+    @Column(name = "total_paid", nullable = false)
+    @Builder.Default
+    private Double totalPaid = 0.0;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
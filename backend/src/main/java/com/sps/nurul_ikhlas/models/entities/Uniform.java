@@ -1,5 +1,7 @@
 package com.sps.nurul_ikhlas.models.entities;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.sps.nurul_ikhlas.models.enums.UniformSize;
 
 import jakarta.persistence.Column;
@@ -39,8 +41,18 @@ public class Uniform {
     @Column(nullable = false)
     private Integer stock;
 
+    // Held by unpaid orders; only changed by the atomic updates in UniformStockRepository
+    @Column(name = "reserved_stock", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer reservedStock = 0;
+
     private String description;
 
     @Column(name = "image_url")
     private String imageUrl;
+
+    public Integer getAvailableStock() {
+        return stock - reservedStock;
+    }
 }
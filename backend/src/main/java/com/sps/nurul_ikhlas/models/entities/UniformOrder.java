@@ -15,6 +15,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -25,7 +26,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Table(name = "uniform_orders")
+@Table(name = "uniform_orders", indexes = {
+        @Index(name = "idx_uniform_orders_date", columnList = "order_date, id") })
 @Entity
 @Builder
 @NoArgsConstructor
@@ -60,6 +62,19 @@ public class UniformOrder {
     @Builder.Default
     private OrderStatus orderStatus = OrderStatus.PENDING;
 
+    // Stock is held for the order until then, unless it is paid first
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+
+    // Set once when the PAID order takes its items out of stock
+    @Column(name = "stock_confirmed_at", updatable = false)
+    private LocalDateTime stockConfirmedAt;
+
+    // Set when the order was paid after its reservation expired and the stock had run out;
+    // none of its items were taken, an admin has to restock or refund it
+    @Column(name = "stock_shortage_at")
+    private LocalDateTime stockShortageAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<UniformOrderItem> items = new ArrayList<>();
@@ -0,0 +1,50 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock held for an unpaid uniform order, counted in
+ * {@link Uniform#getReservedStock()}. The row is removed when the order is
+ * paid, or when it expires and the reservation sweeper gives the stock back.
+ */
+@Data
+@Table(name = "uniform_reservations", indexes = {
+        @Index(name = "idx_uniform_reservation_order", columnList = "order_id"),
+        @Index(name = "idx_uniform_reservation_expires", columnList = "expires_at") })
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniformReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "order_id", nullable = false)
+    private String orderId;
+
+    @Column(name = "uniform_id", nullable = false)
+    private String uniformId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
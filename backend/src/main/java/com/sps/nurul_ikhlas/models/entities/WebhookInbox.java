@@ -0,0 +1,61 @@
+package com.sps.nurul_ikhlas.models.entities;
+
+import java.time.LocalDateTime;
+
+import com.sps.nurul_ikhlas.models.enums.WebhookInboxStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Xendit callback accepted by the webhook endpoint and waiting to be applied
+ * by the webhook inbox scheduler.
+ */
+@Data
+@Table(name = "webhook_inbox", indexes = {
+        @Index(name = "idx_webhook_inbox_pending", columnList = "status, received_at") })
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookInbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private String invoiceId;
+
+    @Column(name = "callback_status", nullable = false)
+    private String callbackStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private WebhookInboxStatus status = WebhookInboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime receivedAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
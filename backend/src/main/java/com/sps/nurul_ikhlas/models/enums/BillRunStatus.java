@@ -0,0 +1,7 @@
+package com.sps.nurul_ikhlas.models.enums;
+
+public enum BillRunStatus {
+    RUNNING,
+    COMPLETED,
+    INTERRUPTED
+}
@@ -0,0 +1,8 @@
+package com.sps.nurul_ikhlas.models.enums;
+
+public enum InvoiceOutboxStatus {
+    PENDING,
+    PROCESSING,
+    SENT,
+    FAILED
+}
@@ -3,5 +3,6 @@ package com.sps.nurul_ikhlas.models.enums;
 public enum TransactionStatus {
     PENDING,
     PAID,
-    EXPIRED
+    EXPIRED,
+    FAILED
 }
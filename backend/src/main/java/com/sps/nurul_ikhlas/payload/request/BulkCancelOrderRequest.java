@@ -0,0 +1,14 @@
+package com.sps.nurul_ikhlas.payload.request;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkCancelOrderRequest {
+    @NotEmpty(message = "Pesanan wajib dipilih")
+    @Size(max = 500, message = "Maksimal 500 pesanan sekaligus")
+    private List<String> orderIds;
+}
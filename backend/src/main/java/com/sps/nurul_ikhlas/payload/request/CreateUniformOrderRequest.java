@@ -3,7 +3,10 @@ package com.sps.nurul_ikhlas.payload.request;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
@@ -14,7 +17,11 @@ public class CreateUniformOrderRequest {
 
     @Data
     public static class OrderItemRequest {
+        @NotBlank(message = "Seragam wajib dipilih")
         private String uniformId;
+
+        @NotNull(message = "Jumlah wajib diisi")
+        @Min(value = 1, message = "Jumlah minimal 1")
         private Integer quantity;
     }
 }
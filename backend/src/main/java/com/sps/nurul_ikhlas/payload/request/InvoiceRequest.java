@@ -0,0 +1,17 @@
+package com.sps.nurul_ikhlas.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceRequest {
+    private String externalId;
+    private Double amount;
+    private String description;
+    private String payerEmail;
+}
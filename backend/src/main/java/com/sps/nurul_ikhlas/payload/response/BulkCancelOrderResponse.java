@@ -0,0 +1,19 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancelOrderResponse {
+    private List<String> cancelledOrderIds;
+
+    // Already cancelled or not found
+    private List<String> skippedOrderIds;
+}
@@ -0,0 +1,16 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceResponse {
+    private String id;
+    private String invoiceUrl;
+    private String status;
+}
@@ -0,0 +1,21 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParentFinanceOverviewResponse {
+    private SppInfoResponse sppInfo; // null if SPP fee is not configured
+    private MonthlyStatusResponse monthlyStatus;
+    private MonthlyBillDetailResponse monthlyDetails;
+    private List<PaymentTransaction> recentTransactions; // latest 20, newest first
+}
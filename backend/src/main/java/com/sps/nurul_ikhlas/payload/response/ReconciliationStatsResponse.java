@@ -0,0 +1,26 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationStatsResponse {
+    // Totals since startup
+    private long runs;
+    private long processed;
+    private long changed;
+    private long errors;
+
+    private LocalDateTime lastRunAt;
+    private long lastRunDurationMs;
+    private long lastRunProcessed;
+    private long lastRunChanged;
+    private long lastRunErrors;
+}
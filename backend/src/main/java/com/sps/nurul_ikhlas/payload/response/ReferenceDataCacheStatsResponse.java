@@ -0,0 +1,18 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceDataCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private double hitRatio;
+    private int entries;
+}
@@ -0,0 +1,21 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentArrearsPageResponse {
+    private List<StudentArrearsResponse> items;
+    private String nextCursor; // null when there are no more rows
+    private boolean hasMore;
+    private Integer size;
+    private LocalDateTime snapshotAt; // oldest computedAt in the arrears snapshot
+}
@@ -1,5 +1,7 @@
 package com.sps.nurul_ikhlas.payload.response;
 
+import java.time.LocalDateTime;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +18,8 @@ public class StudentArrearsResponse {
     private Integer monthsUnpaid;
     private Double totalArrears;
     private Double sppAmount;
+    private Integer infaqMonthsUnpaid;
+    private Integer kasMonthsUnpaid;
+    private Boolean isCritical; // 3+ months unpaid on SPP, Infaq or Kas
+    private LocalDateTime computedAt; // when this row of the arrears snapshot was computed
 }
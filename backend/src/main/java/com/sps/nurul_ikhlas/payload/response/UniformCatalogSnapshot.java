@@ -0,0 +1,26 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.entities.Uniform;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniformCatalogSnapshot {
+    // Local invalidation counter the snapshot was built at
+    private long version;
+
+    // Derived from the content, so it is the same on every instance and across restarts
+    private String etag;
+
+    private List<Uniform> uniforms;
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,21 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import com.sps.nurul_ikhlas.models.enums.UniformSize;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniformOrderItemResponse {
+    private String uniformId;
+    private String uniformName;
+    private UniformSize size;
+    private Integer quantity;
+    private Double priceAtMoment;
+    private Double subTotal;
+}
@@ -0,0 +1,19 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniformOrderPageResponse {
+    private List<UniformOrderSummaryResponse> items;
+    private String nextCursor; // null when there are no more rows
+    private boolean hasMore;
+    private Integer size;
+}
@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.payload.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniformOrderSummaryResponse {
+    private String id;
+    private LocalDateTime orderDate;
+    private String studentId;
+    private String studentName;
+    private Double totalAmount;
+    private Double totalPaid;
+    private PaymentStatus paymentStatus;
+    private OrderStatus orderStatus;
+    private LocalDateTime stockShortageAt;
+    private List<UniformOrderItemResponse> items;
+}
@@ -0,0 +1,49 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.ArrearsSnapshot;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+
+@Repository
+public interface ArrearsSnapshotRepository extends JpaRepository<ArrearsSnapshot, String> {
+    List<ArrearsSnapshot> findByStudentIdIn(Collection<String> studentIds);
+
+    List<ArrearsSnapshot> findBySppMonthsUnpaidGreaterThanOrderBySppTotalArrearsDesc(Integer monthsUnpaid);
+
+    @Query("SELECT MIN(a.computedAt) FROM ArrearsSnapshot a")
+    LocalDateTime findOldestComputedAt();
+
+    @Modifying
+    @Query("DELETE FROM ArrearsSnapshot a WHERE a.studentId NOT IN (SELECT s.id FROM Student s WHERE s.registerDate IS NOT NULL)")
+    int deleteOrphaned();
+
+    /**
+     * One page of students in arrears, ordered by SPP months unpaid (descending)
+     * then student id, starting strictly after the (cursorMonths, cursorId) keyset.
+     */
+    @Query("SELECT a FROM ArrearsSnapshot a "
+            + "WHERE (:classId IS NULL OR a.classId = :classId) "
+            + "AND (:academicYearId IS NULL OR a.academicYearId = :academicYearId) "
+            + "AND (:status IS NULL OR a.studentStatus = :status) "
+            + "AND a.sppMonthsUnpaid >= :minMonthsUnpaid "
+            + "AND (a.sppMonthsUnpaid < :cursorMonths "
+            + "OR (a.sppMonthsUnpaid = :cursorMonths AND a.studentId > :cursorId)) "
+            + "ORDER BY a.sppMonthsUnpaid DESC, a.studentId ASC")
+    List<ArrearsSnapshot> findArrearsPage(@Param("classId") String classId,
+            @Param("academicYearId") String academicYearId,
+            @Param("status") StudentStatus status,
+            @Param("minMonthsUnpaid") Integer minMonthsUnpaid,
+            @Param("cursorMonths") Integer cursorMonths,
+            @Param("cursorId") String cursorId,
+            Pageable pageable);
+}
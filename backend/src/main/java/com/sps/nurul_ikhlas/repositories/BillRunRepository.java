@@ -0,0 +1,20 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.BillRun;
+import com.sps.nurul_ikhlas.models.enums.BillRunStatus;
+
+@Repository
+public interface BillRunRepository extends JpaRepository<BillRun, String> {
+    Optional<BillRun> findByBillMonth(YearMonth billMonth);
+
+    List<BillRun> findAllByOrderByBillMonthDesc();
+
+    List<BillRun> findByStatus(BillRunStatus status);
+}
@@ -0,0 +1,53 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.InvoiceOutbox;
+import com.sps.nurul_ikhlas.models.enums.InvoiceOutboxStatus;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface InvoiceOutboxRepository extends JpaRepository<InvoiceOutbox, String> {
+    Optional<InvoiceOutbox> findByTransactionId(String transactionId);
+
+    /**
+     * Locks the entry so a worker can check it still holds the lease before
+     * recording the outcome of its gateway call.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM InvoiceOutbox o WHERE o.id = :id")
+    Optional<InvoiceOutbox> lockById(@Param("id") String id);
+
+    /**
+     * Entries ready to be sent: PENDING ones whose retry time has come, and
+     * PROCESSING ones whose lease ran out (the worker died mid-call).
+     */
+    @Query("SELECT o FROM InvoiceOutbox o WHERE o.status IN :statuses AND o.nextAttemptAt <= :now "
+            + "ORDER BY o.nextAttemptAt ASC")
+    List<InvoiceOutbox> findDue(@Param("statuses") Collection<InvoiceOutboxStatus> statuses,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Takes the entry for one worker. Returns 0 when another run or instance
+     * already claimed it.
+     */
+    @Modifying
+    @Query("UPDATE InvoiceOutbox o SET o.status = :processing, o.attempts = o.attempts + 1, "
+            + "o.nextAttemptAt = :leaseUntil "
+            + "WHERE o.id = :id AND o.status IN :statuses AND o.nextAttemptAt <= :now")
+    int claim(@Param("id") String id, @Param("statuses") Collection<InvoiceOutboxStatus> statuses,
+            @Param("processing") InvoiceOutboxStatus processing, @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+}
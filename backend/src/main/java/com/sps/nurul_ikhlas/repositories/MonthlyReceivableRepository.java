@@ -0,0 +1,19 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.MonthlyReceivable;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+@Repository
+public interface MonthlyReceivableRepository extends JpaRepository<MonthlyReceivable, String> {
+    List<MonthlyReceivable> findByStudentIdAndBillMonthBetweenOrderByBillMonthAsc(String studentId, YearMonth from,
+            YearMonth to);
+
+    List<MonthlyReceivable> findByStudentIdAndPaymentTypeAndBillMonthGreaterThanEqualOrderByBillMonthAsc(
+            String studentId, PaymentType paymentType, YearMonth from);
+}
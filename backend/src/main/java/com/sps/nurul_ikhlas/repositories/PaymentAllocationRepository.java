@@ -0,0 +1,15 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.PaymentAllocation;
+
+@Repository
+public interface PaymentAllocationRepository extends JpaRepository<PaymentAllocation, String> {
+    List<PaymentAllocation> findByTransactionId(String transactionId);
+
+    boolean existsByTransactionId(String transactionId);
+}
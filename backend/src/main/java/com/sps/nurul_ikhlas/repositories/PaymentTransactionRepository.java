@@ -1,16 +1,97 @@
 package com.sps.nurul_ikhlas.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.projections.PaymentTypeTotal;
+import com.sps.nurul_ikhlas.repositories.projections.PendingInvoiceRef;
+import com.sps.nurul_ikhlas.repositories.projections.StudentPaymentTypeTotal;
 
 @Repository
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, String> {
     List<PaymentTransaction> findByStudentIdOrderByCreatedAtDesc(String studentId);
 
+    List<PaymentTransaction> findByStudentIdOrderByCreatedAtDesc(String studentId, Pageable pageable);
+
+    List<PaymentTransaction> findByStudentIdAndPaymentTypeOrderByCreatedAtDesc(String studentId,
+            PaymentType paymentType);
+
+    List<PaymentTransaction> findByStatusOrderByCreatedAtAsc(TransactionStatus status, Pageable pageable);
+
     Optional<PaymentTransaction> findByXenditInvoiceId(String xenditInvoiceId);
+
+    List<PaymentTransaction> findByXenditInvoiceIdIn(Collection<String> xenditInvoiceIds);
+
+    @Modifying
+    @Query("UPDATE PaymentTransaction t SET t.status = :status WHERE t.id IN :ids AND t.status IN :fromStatuses")
+    int updateStatus(@Param("ids") Collection<String> ids,
+            @Param("fromStatuses") Collection<TransactionStatus> fromStatuses,
+            @Param("status") TransactionStatus status);
+
+    /**
+     * Attaches the gateway invoice, never replacing one already attached, so a
+     * webhook for the first invoice always finds its transaction.
+     */
+    @Modifying
+    @Query("UPDATE PaymentTransaction t SET t.xenditInvoiceId = :invoiceId, t.xenditPaymentUrl = :paymentUrl "
+            + "WHERE t.id = :id AND t.xenditInvoiceId IS NULL")
+    int attachInvoice(@Param("id") String id, @Param("invoiceId") String invoiceId,
+            @Param("paymentUrl") String paymentUrl);
+
+    // Served by idx_payment_tx_status_created
+    @Query("SELECT t.id FROM PaymentTransaction t WHERE t.status = :status AND t.createdAt < :createdBefore "
+            + "ORDER BY t.createdAt")
+    List<String> findIdsByStatusCreatedBefore(@Param("status") TransactionStatus status,
+            @Param("createdBefore") LocalDateTime createdBefore, Pageable pageable);
+
+    Optional<PaymentTransaction> findByIdAndStudentId(String id, String studentId);
+
+    Optional<PaymentTransaction> findByStudentIdAndIdempotencyKey(String studentId, String idempotencyKey);
+
+    /**
+     * Latest PENDING transaction for the same student, type, amount and order
+     * created after {@code createdAfter}, i.e. one whose invoice is still open.
+     */
+    @Query("SELECT t FROM PaymentTransaction t WHERE t.student.id = :studentId AND t.paymentType = :paymentType "
+            + "AND t.status = :status AND t.amount = :amount AND t.createdAt > :createdAfter "
+            + "AND ((:orderId IS NULL AND t.orderId IS NULL) OR t.orderId = :orderId) "
+            + "ORDER BY t.createdAt DESC")
+    List<PaymentTransaction> findReusable(@Param("studentId") String studentId,
+            @Param("paymentType") PaymentType paymentType, @Param("amount") Double amount,
+            @Param("orderId") String orderId, @Param("status") TransactionStatus status,
+            @Param("createdAfter") LocalDateTime createdAfter, Pageable pageable);
+
+    /**
+     * Keyset page of PENDING transactions with an invoice, created before
+     * {@code createdBefore}, ordered by id.
+     */
+    @Query("SELECT t.id AS id, t.xenditInvoiceId AS invoiceId FROM PaymentTransaction t "
+            + "WHERE t.status = :status AND t.createdAt < :createdBefore AND t.xenditInvoiceId IS NOT NULL "
+            + "AND t.id > :afterId ORDER BY t.id")
+    List<PendingInvoiceRef> findPendingInvoices(@Param("status") TransactionStatus status,
+            @Param("createdBefore") LocalDateTime createdBefore, @Param("afterId") String afterId,
+            Pageable pageable);
+
+    // Aggregates - return sums only, no PaymentTransaction entities are loaded
+
+    @Query("SELECT t.paymentType AS paymentType, SUM(t.amount) AS totalAmount FROM PaymentTransaction t "
+            + "WHERE t.student.id = :studentId AND t.status = :status GROUP BY t.paymentType")
+    List<PaymentTypeTotal> sumAmountByPaymentType(@Param("studentId") String studentId,
+            @Param("status") TransactionStatus status);
+
+    @Query("SELECT t.student.id AS studentId, t.paymentType AS paymentType, SUM(t.amount) AS totalAmount "
+            + "FROM PaymentTransaction t WHERE t.status = :status GROUP BY t.student.id, t.paymentType")
+    List<StudentPaymentTypeTotal> sumAmountByStudentAndPaymentType(@Param("status") TransactionStatus status);
 }
@@ -0,0 +1,16 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.ProcessedWebhook;
+
+@Repository
+public interface ProcessedWebhookRepository extends JpaRepository<ProcessedWebhook, String> {
+    boolean existsByInvoiceIdAndStatus(String invoiceId, String status);
+
+    List<ProcessedWebhook> findByInvoiceIdIn(Collection<String> invoiceIds);
+}
@@ -0,0 +1,43 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.StudentBalance;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+@Repository
+public interface StudentBalanceRepository extends JpaRepository<StudentBalance, String> {
+    List<StudentBalance> findByStudentId(String studentId);
+
+    List<StudentBalance> findByStudentIdIn(Collection<String> studentIds);
+
+    List<StudentBalance> findByPaymentType(PaymentType paymentType);
+
+    @Modifying
+    @Query("DELETE FROM StudentBalance b WHERE b.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") String studentId);
+
+    /**
+     * Adds to the student's total for the payment type, creating the row on
+     * the first payment. A single statement, so two concurrent first payments
+     * cannot both insert and trip the unique constraint.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO student_balances (id, student_id, payment_type, total_paid, updated_at) "
+            + "VALUES (:id, :studentId, :paymentType, :amount, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE total_paid = total_paid + :amount, updated_at = :updatedAt",
+            nativeQuery = true)
+    int addToTotalPaid(@Param("id") String id,
+            @Param("studentId") String studentId,
+            @Param("paymentType") String paymentType,
+            @Param("amount") Double amount,
+            @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,13 +1,68 @@
 package com.sps.nurul_ikhlas.repositories;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sps.nurul_ikhlas.models.entities.Student;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+import com.sps.nurul_ikhlas.repositories.projections.PendingInvoiceRef;
+import com.sps.nurul_ikhlas.repositories.projections.StudentArrearsSource;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, String> {
     Optional<Student> findByPersonId(String personId);
+
+    @Query("SELECT s.id FROM Student s WHERE s.person.id = :personId")
+    Optional<String> findIdByPersonId(@Param("personId") String personId);
+
+    List<Student> findByXenditInvoiceIdIn(Collection<String> xenditInvoiceIds);
+
+    // registerDate is the only timestamp a registration invoice has. Served by idx_student_payment_status_register
+    @Query("SELECT s.id FROM Student s WHERE s.paymentStatus = :paymentStatus AND s.registerDate < :registeredBefore "
+            + "ORDER BY s.registerDate, s.id")
+    List<String> findIdsByPaymentStatusRegisteredBefore(@Param("paymentStatus") String paymentStatus,
+            @Param("registeredBefore") LocalDate registeredBefore, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Student s SET s.paymentStatus = :paymentStatus WHERE s.id IN :ids AND s.paymentStatus = :fromStatus")
+    int updatePaymentStatus(@Param("ids") Collection<String> ids, @Param("fromStatus") String fromStatus,
+            @Param("paymentStatus") String paymentStatus);
+
+    @Query("SELECT s.id FROM Student s WHERE s.status IN :statuses AND s.id > :afterId ORDER BY s.id")
+    List<String> findIdsByStatusIn(@Param("statuses") Collection<StudentStatus> statuses,
+            @Param("afterId") String afterId, Pageable pageable);
+
+    long countByStatusIn(Collection<StudentStatus> statuses);
+
+    // Students have no creation time, so every unpaid registration invoice is checked
+    @Query("SELECT s.id AS id, s.xenditInvoiceId AS invoiceId FROM Student s "
+            + "WHERE s.paymentStatus = :paymentStatus AND s.xenditInvoiceId IS NOT NULL AND s.id > :afterId "
+            + "ORDER BY s.id")
+    List<PendingInvoiceRef> findPendingRegistrationInvoices(@Param("paymentStatus") String paymentStatus,
+            @Param("afterId") String afterId, Pageable pageable);
+
+    String ARREARS_SOURCE_SELECT = "SELECT s.id AS studentId, p.fullName AS studentName, "
+            + "c.id AS classId, c.name AS className, y.id AS academicYearId, "
+            + "s.status AS status, s.registerDate AS registerDate "
+            + "FROM Student s LEFT JOIN s.person p LEFT JOIN s.currentClass c LEFT JOIN s.batch y "
+            + "WHERE s.registerDate IS NOT NULL";
+
+    @Query(ARREARS_SOURCE_SELECT)
+    List<StudentArrearsSource> findArrearsSources();
+
+    @Query(ARREARS_SOURCE_SELECT + " AND s.id IN :ids")
+    List<StudentArrearsSource> findArrearsSourcesByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT s.id FROM Student s WHERE s.registerDate IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM ArrearsSnapshot a WHERE a.studentId = s.id)")
+    List<String> findIdsWithoutArrearsSnapshot();
 }
@@ -1,10 +1,25 @@
 package com.sps.nurul_ikhlas.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sps.nurul_ikhlas.models.entities.UniformOrderItem;
+import com.sps.nurul_ikhlas.repositories.projections.UniformOrderItemRow;
+import com.sps.nurul_ikhlas.repositories.projections.UniformQuantity;
 
 @Repository
 public interface UniformOrderItemRepository extends JpaRepository<UniformOrderItem, String> {
+    @Query("SELECT i.uniform.id AS uniformId, SUM(i.quantity) AS quantity FROM UniformOrderItem i "
+            + "WHERE i.order.id IN :orderIds GROUP BY i.uniform.id")
+    List<UniformQuantity> sumQuantityByUniform(@Param("orderIds") Collection<String> orderIds);
+
+    @Query("SELECT i.order.id AS orderId, u.id AS uniformId, u.name AS uniformName, u.size AS uniformSize, "
+            + "i.quantity AS quantity, i.priceAtMoment AS priceAtMoment, i.subTotal AS subTotal "
+            + "FROM UniformOrderItem i JOIN i.uniform u WHERE i.order.id IN :orderIds ORDER BY u.name, u.size")
+    List<UniformOrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
 }
@@ -1,12 +1,23 @@
 package com.sps.nurul_ikhlas.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
 import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.repositories.projections.UniformOrderRow;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface UniformOrderRepository extends JpaRepository<UniformOrder, String> {
@@ -15,4 +26,65 @@ public interface UniformOrderRepository extends JpaRepository<UniformOrder, Stri
     List<UniformOrder> findByOrderStatusOrderByOrderDateDesc(OrderStatus status);
 
     List<UniformOrder> findAllByOrderByOrderDateDesc();
+
+    /**
+     * One page of orders for the admin list, newest first, starting strictly
+     * after the (cursorDate, cursorId) keyset. Reads only the columns the list
+     * shows, so no student, person or region entities are loaded.
+     */
+    @Query("SELECT o.id AS id, o.orderDate AS orderDate, s.id AS studentId, p.fullName AS studentName, "
+            + "o.totalAmount AS totalAmount, o.totalPaid AS totalPaid, o.paymentStatus AS paymentStatus, "
+            + "o.orderStatus AS orderStatus, o.stockShortageAt AS stockShortageAt "
+            + "FROM UniformOrder o JOIN o.student s LEFT JOIN s.person p "
+            + "WHERE (:status IS NULL OR o.orderStatus = :status) "
+            + "AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus) "
+            + "AND (:from IS NULL OR o.orderDate >= :from) "
+            + "AND (:to IS NULL OR o.orderDate < :to) "
+            + "AND (:cursorDate IS NULL OR o.orderDate < :cursorDate "
+            + "OR (o.orderDate = :cursorDate AND o.id < :cursorId)) "
+            + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<UniformOrderRow> findOrderPage(@Param("status") OrderStatus status,
+            @Param("paymentStatus") PaymentStatus paymentStatus,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") String cursorId,
+            Pageable pageable);
+
+    /**
+     * Locks the orders in id order, so concurrent status changes on the same
+     * orders wait for each other instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM UniformOrder o WHERE o.id IN :ids ORDER BY o.id")
+    List<UniformOrder> lockByIdIn(@Param("ids") Collection<String> ids);
+
+    // Status is assigned before total_paid: MySQL evaluates SET left to right,
+    // so both expressions must read the pre-update total
+    @Modifying
+    @Query("UPDATE UniformOrder o SET "
+            + "o.paymentStatus = CASE WHEN COALESCE(o.totalPaid, 0) + :amount >= o.totalAmount "
+            + "THEN :paid ELSE :partial END, "
+            + "o.totalPaid = COALESCE(o.totalPaid, 0) + :amount "
+            + "WHERE o.id = :id")
+    int addPayment(@Param("id") String id,
+            @Param("amount") Double amount,
+            @Param("paid") PaymentStatus paid,
+            @Param("partial") PaymentStatus partial);
+
+    /**
+     * Claims a PAID order whose stock was reserved, so its items are taken out
+     * of stock exactly once. Orders from before reservations have no
+     * reservedUntil; their stock was taken when they were created. Cancelled
+     * orders already gave their stock back.
+     */
+    @Modifying
+    @Query("UPDATE UniformOrder o SET o.stockConfirmedAt = :now WHERE o.id = :id AND o.paymentStatus = :paid "
+            + "AND o.orderStatus <> :cancelled AND o.reservedUntil IS NOT NULL AND o.stockConfirmedAt IS NULL")
+    int markStockConfirmed(@Param("id") String id, @Param("paid") PaymentStatus paid,
+            @Param("cancelled") OrderStatus cancelled, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UniformOrder o SET o.stockShortageAt = :now WHERE o.id = :id")
+    int markStockShortage(@Param("id") String id, @Param("now") LocalDateTime now);
 }
@@ -3,11 +3,17 @@ package com.sps.nurul_ikhlas.repositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sps.nurul_ikhlas.models.entities.Uniform;
 
 @Repository
-public interface UniformRepository extends JpaRepository<Uniform, String> {
-    List<Uniform> findByStockGreaterThan(Integer stock);
+public interface UniformRepository extends JpaRepository<Uniform, String>, UniformStockRepository {
+    @Query("SELECT u FROM Uniform u WHERE u.stock > u.reservedStock ORDER BY u.name, u.size, u.id")
+    List<Uniform> findAvailable();
+
+    @Query("SELECT u.stock - u.reservedStock FROM Uniform u WHERE u.id = :id")
+    Integer findAvailableStockById(@Param("id") String id);
 }
@@ -0,0 +1,37 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.UniformReservation;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface UniformReservationRepository extends JpaRepository<UniformReservation, String> {
+    List<UniformReservation> findByOrderIdIn(Collection<String> orderIds);
+
+    /**
+     * Locks the order's reservations, so a payment and the sweeper can never
+     * both give back the same rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM UniformReservation r WHERE r.orderId IN :orderIds")
+    List<UniformReservation> lockByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM UniformReservation r WHERE r.expiresAt < :now AND EXISTS ("
+            + "SELECT 1 FROM UniformOrder o WHERE o.id = r.orderId AND o.paymentStatus = :paymentStatus) "
+            + "ORDER BY r.id")
+    List<UniformReservation> lockExpired(@Param("now") LocalDateTime now,
+            @Param("paymentStatus") PaymentStatus paymentStatus, Pageable pageable);
+}
@@ -0,0 +1,32 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.util.SortedMap;
+
+/**
+ * Atomic stock updates, each sent as one JDBC batch in uniform id order so
+ * concurrent callers lock uniform rows in the same order.
+ */
+public interface UniformStockRepository {
+    /**
+     * Holds each quantity for an order, only where that much is still
+     * available (stock minus reserved). Returns the affected-row count per
+     * entry, in key order; 0 means the uniform is out of stock.
+     */
+    int[] reserveStocks(SortedMap<String, Integer> quantityByUniform);
+
+    /** Gives held quantities back to the available stock. */
+    void releaseStocks(SortedMap<String, Integer> quantityByUniform);
+
+    /** Takes sold quantities out of stock. */
+    void takeStocks(SortedMap<String, Integer> quantityByUniform);
+
+    /**
+     * Takes sold quantities out of stock only where that much is still
+     * available, for items that were never reserved. Returns the
+     * affected-row count per entry, in key order; 0 means the uniform is short.
+     */
+    int[] takeAvailableStocks(SortedMap<String, Integer> quantityByUniform);
+
+    /** Puts quantities of cancelled orders back into stock. */
+    void returnStocks(SortedMap<String, Integer> quantityByUniform);
+}
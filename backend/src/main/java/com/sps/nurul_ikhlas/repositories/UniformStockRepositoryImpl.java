@@ -0,0 +1,55 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class UniformStockRepositoryImpl implements UniformStockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] reserveStocks(SortedMap<String, Integer> quantityByUniform) {
+        List<Object[]> args = new ArrayList<>(quantityByUniform.size());
+        quantityByUniform.forEach((id, quantity) -> args.add(new Object[] { quantity, id, quantity }));
+        return jdbcTemplate.batchUpdate("UPDATE uniforms SET reserved_stock = reserved_stock + ? "
+                + "WHERE id = ? AND stock - reserved_stock >= ?", args);
+    }
+
+    @Override
+    public void releaseStocks(SortedMap<String, Integer> quantityByUniform) {
+        batch("UPDATE uniforms SET reserved_stock = reserved_stock - ? WHERE id = ?", quantityByUniform);
+    }
+
+    @Override
+    public void takeStocks(SortedMap<String, Integer> quantityByUniform) {
+        batch("UPDATE uniforms SET stock = stock - ? WHERE id = ?", quantityByUniform);
+    }
+
+    @Override
+    public int[] takeAvailableStocks(SortedMap<String, Integer> quantityByUniform) {
+        List<Object[]> args = new ArrayList<>(quantityByUniform.size());
+        quantityByUniform.forEach((id, quantity) -> args.add(new Object[] { quantity, id, quantity }));
+        return jdbcTemplate.batchUpdate("UPDATE uniforms SET stock = stock - ? "
+                + "WHERE id = ? AND stock - reserved_stock >= ?", args);
+    }
+
+    @Override
+    public void returnStocks(SortedMap<String, Integer> quantityByUniform) {
+        batch("UPDATE uniforms SET stock = stock + ? WHERE id = ?", quantityByUniform);
+    }
+
+    private void batch(String sql, SortedMap<String, Integer> quantityByUniform) {
+        if (quantityByUniform.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(quantityByUniform.size());
+        quantityByUniform.forEach((id, quantity) -> args.add(new Object[] { quantity, id }));
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sps.nurul_ikhlas.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sps.nurul_ikhlas.models.entities.WebhookInbox;
+import com.sps.nurul_ikhlas.models.enums.WebhookInboxStatus;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInbox, String> {
+    List<WebhookInbox> findByStatusOrderByReceivedAtAsc(WebhookInboxStatus status, Pageable pageable);
+
+    /**
+     * Marks the events processed. Only PENDING rows are touched, so a count
+     * lower than {@code ids.size()} means another worker got there first.
+     */
+    @Modifying
+    @Query("UPDATE WebhookInbox w SET w.status = :processed, w.processedAt = :processedAt "
+            + "WHERE w.id IN :ids AND w.status = :pending")
+    int markProcessed(@Param("ids") Collection<String> ids, @Param("pending") WebhookInboxStatus pending,
+            @Param("processed") WebhookInboxStatus processed, @Param("processedAt") LocalDateTime processedAt);
+}
@@ -0,0 +1,9 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+public interface PaymentTypeTotal {
+    PaymentType getPaymentType();
+
+    Double getTotalAmount();
+}
@@ -0,0 +1,10 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+/**
+ * Row id and gateway invoice id of a payment still waiting for its webhook.
+ */
+public interface PendingInvoiceRef {
+    String getId();
+
+    String getInvoiceId();
+}
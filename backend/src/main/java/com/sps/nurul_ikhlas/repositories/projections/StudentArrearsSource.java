@@ -0,0 +1,21 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+import java.time.LocalDate;
+
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+
+public interface StudentArrearsSource {
+    String getStudentId();
+
+    String getStudentName();
+
+    String getClassId();
+
+    String getClassName();
+
+    String getAcademicYearId();
+
+    StudentStatus getStatus();
+
+    LocalDate getRegisterDate();
+}
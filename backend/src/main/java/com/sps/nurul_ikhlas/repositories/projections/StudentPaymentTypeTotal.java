@@ -0,0 +1,11 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+public interface StudentPaymentTypeTotal {
+    String getStudentId();
+
+    PaymentType getPaymentType();
+
+    Double getTotalAmount();
+}
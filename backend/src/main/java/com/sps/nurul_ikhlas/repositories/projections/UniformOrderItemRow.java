@@ -0,0 +1,22 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+import com.sps.nurul_ikhlas.models.enums.UniformSize;
+
+/**
+ * One order line in the admin list, with the uniform name and size joined in.
+ */
+public interface UniformOrderItemRow {
+    String getOrderId();
+
+    String getUniformId();
+
+    String getUniformName();
+
+    UniformSize getUniformSize();
+
+    Integer getQuantity();
+
+    Double getPriceAtMoment();
+
+    Double getSubTotal();
+}
@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+import java.time.LocalDateTime;
+
+import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+
+/**
+ * One uniform order in the admin list, with the student name joined in.
+ */
+public interface UniformOrderRow {
+    String getId();
+
+    LocalDateTime getOrderDate();
+
+    String getStudentId();
+
+    String getStudentName();
+
+    Double getTotalAmount();
+
+    Double getTotalPaid();
+
+    PaymentStatus getPaymentStatus();
+
+    OrderStatus getOrderStatus();
+
+    LocalDateTime getStockShortageAt();
+}
@@ -0,0 +1,10 @@
+package com.sps.nurul_ikhlas.repositories.projections;
+
+/**
+ * Total quantity of one uniform across a set of orders.
+ */
+public interface UniformQuantity {
+    String getUniformId();
+
+    Long getQuantity();
+}
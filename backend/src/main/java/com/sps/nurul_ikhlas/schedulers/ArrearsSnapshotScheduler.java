@@ -0,0 +1,38 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.ArrearsSnapshotService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArrearsSnapshotScheduler {
+
+    private final ArrearsSnapshotService arrearsSnapshotService;
+
+    /**
+     * Full recompute, also picks up the month rollover and class/status changes.
+     */
+    @Scheduled(cron = "${app.arrears.snapshot-cron}")
+    public void rebuildSnapshot() {
+        log.info("Starting nightly arrears snapshot rebuild...");
+        arrearsSnapshotService.rebuildAll();
+    }
+
+    /**
+     * Recomputes students whose payments changed since the last run.
+     */
+    @Scheduled(fixedDelayString = "${app.arrears.refresh-delay-ms}", initialDelayString = "${app.arrears.refresh-delay-ms}")
+    public void refreshDirtyStudents() {
+        try {
+            arrearsSnapshotService.refreshDirty();
+        } catch (Exception e) {
+            log.error("Failed to refresh arrears snapshot: {}", e.getMessage());
+        }
+    }
+}
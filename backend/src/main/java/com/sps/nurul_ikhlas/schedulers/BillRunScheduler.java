@@ -0,0 +1,32 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import java.time.YearMonth;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.BillRunService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BillRunScheduler {
+
+    private final BillRunService billRunService;
+
+    /**
+     * Pre-generates the current month's invoices. Disabled unless
+     * app.bill-run.cron is set.
+     */
+    @Scheduled(cron = "${app.bill-run.cron}")
+    public void startMonthlyBillRun() {
+        try {
+            billRunService.start(YearMonth.now());
+        } catch (Exception e) {
+            log.error("Failed to start monthly bill run: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.InvoiceOutboxService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceOutboxScheduler {
+
+    private final InvoiceOutboxService invoiceOutboxService;
+
+    /**
+     * Creates Xendit invoices for payments queued by the parent endpoints.
+     */
+    @Scheduled(fixedDelayString = "${app.invoice-outbox.poll-delay-ms}")
+    public void drainOutbox() {
+        try {
+            invoiceOutboxService.processPending();
+        } catch (Exception e) {
+            log.error("Failed to process invoice outbox: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.PaymentExpiryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExpiryScheduler {
+
+    private final PaymentExpiryService paymentExpiryService;
+
+    /**
+     * Expires invoices whose Xendit EXPIRED callback never arrived.
+     */
+    @Scheduled(fixedDelayString = "${app.payment-expiry.interval-ms}", initialDelayString = "${app.payment-expiry.interval-ms}")
+    public void expireStalePayments() {
+        try {
+            paymentExpiryService.expireStale();
+        } catch (Exception e) {
+            log.error("Failed to expire stale payments: {}", e.getMessage());
+        }
+    }
+}
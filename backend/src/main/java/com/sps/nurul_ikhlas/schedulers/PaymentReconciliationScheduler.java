@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.PaymentReconciliationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationScheduler {
+
+    private final PaymentReconciliationService paymentReconciliationService;
+
+    /**
+     * Catches payments whose Xendit callback never arrived.
+     */
+    @Scheduled(fixedDelayString = "${app.reconciler.interval-ms}", initialDelayString = "${app.reconciler.interval-ms}")
+    public void reconcilePendingPayments() {
+        try {
+            paymentReconciliationService.reconcile();
+        } catch (Exception e) {
+            log.error("Failed to reconcile pending payments: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.UniformReservationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UniformReservationScheduler {
+
+    private final UniformReservationService uniformReservationService;
+
+    /**
+     * Returns stock held by unpaid orders whose reservation ran out.
+     */
+    @Scheduled(fixedDelayString = "${app.uniform-reservation.sweep-interval-ms}", initialDelayString = "${app.uniform-reservation.sweep-interval-ms}")
+    public void releaseExpiredReservations() {
+        try {
+            uniformReservationService.releaseExpired();
+        } catch (Exception e) {
+            log.error("Failed to release expired uniform reservations: {}", e.getMessage());
+        }
+    }
+}
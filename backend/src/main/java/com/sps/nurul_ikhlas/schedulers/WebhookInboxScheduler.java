@@ -0,0 +1,32 @@
+package com.sps.nurul_ikhlas.schedulers;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.services.WebhookInboxService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookInboxScheduler {
+
+    private final WebhookInboxService webhookInboxService;
+
+    /**
+     * Applies Xendit callbacks accepted by PaymentController, one batch per
+     * transaction. Keeps draining while full batches come back.
+     */
+    @Scheduled(fixedDelayString = "${app.webhook-inbox.poll-delay-ms}")
+    public void drainInbox() {
+        try {
+            while (webhookInboxService.processPending() > 0) {
+                // next batch
+            }
+        } catch (Exception e) {
+            log.error("Failed to process webhook inbox: {}", e.getMessage());
+        }
+    }
+}
@@ -7,6 +7,9 @@ import java.util.Date;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.sps.nurul_ikhlas.models.enums.Role;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
@@ -25,13 +28,22 @@ public class JwtUtils {
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs;
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_PERSON_ID = "personId";
+    private static final String CLAIM_STUDENT_ID = "studentId";
+
     private Key getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
 
-    public String generateJwtToken(String username) {
+    public String generateJwtToken(UserDetailsImpl userDetails) {
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(userDetails.getUsername())
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .claim(CLAIM_ROLE, userDetails.getRole().name())
+                .claim(CLAIM_PERSON_ID, userDetails.getPersonId())
+                .claim(CLAIM_STUDENT_ID, userDetails.getStudentId())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -39,21 +51,40 @@ public class JwtUtils {
     }
 
     public String getUsernameFromJwtToken(String token) {
+        return parseClaims(token).getSubject();
+    }
+
+    /**
+     * Builds the principal straight from the token claims. Returns null for
+     * tokens issued before the claims were added, so callers can fall back to
+     * loading the user.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+
+        return UserDetailsImpl.fromClaims(
+                userId,
+                claims.getSubject(),
+                Role.valueOf(role),
+                claims.get(CLAIM_PERSON_ID, String.class),
+                claims.get(CLAIM_STUDENT_ID, String.class));
+    }
+
+    public Claims parseClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    public Claims validateAndParseClaims(String authToken) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return parseClaims(authToken);
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -63,6 +94,10 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return validateAndParseClaims(authToken) != null;
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.sps.nurul_ikhlas.models.entities.User;
+import com.sps.nurul_ikhlas.models.enums.Role;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,17 +20,36 @@ public class UserDetailsImpl implements UserDetails {
     private String id;
     private String username;
     private String password;
+    private Role role;
+    private String personId;
+    private String studentId;
     private Collection<? extends GrantedAuthority> authorities;
 
-    public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> authorities = List.of(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-
+    public static UserDetailsImpl build(User user, String studentId) {
         return new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getPassword(),
-                authorities);
+                user.getRole(),
+                user.getPerson() != null ? user.getPerson().getId() : null,
+                studentId,
+                authoritiesOf(user.getRole()));
+    }
+
+    public static UserDetailsImpl fromClaims(String id, String username, Role role, String personId,
+            String studentId) {
+        return new UserDetailsImpl(id, username, null, role, personId, studentId, authoritiesOf(role));
+    }
+
+    private static List<GrantedAuthority> authoritiesOf(Role role) {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public String requireStudentId() {
+        if (studentId == null) {
+            throw new RuntimeException("Data siswa tidak ditemukan untuk akun ini");
+        }
+        return studentId;
     }
 
     @Override
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sps.nurul_ikhlas.models.entities.User;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
 import com.sps.nurul_ikhlas.repositories.UserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
 
     @Override
     @Transactional
@@ -23,6 +25,10 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return UserDetailsImpl.build(user);
+        String studentId = user.getPerson() != null
+                ? studentRepository.findIdByPersonId(user.getPerson().getId()).orElse(null)
+                : null;
+
+        return UserDetailsImpl.build(user, studentId);
     }
 }
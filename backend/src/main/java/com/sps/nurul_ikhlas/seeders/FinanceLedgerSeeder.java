@@ -0,0 +1,69 @@
+package com.sps.nurul_ikhlas.seeders;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.sps.nurul_ikhlas.repositories.ArrearsSnapshotRepository;
+import com.sps.nurul_ikhlas.repositories.MonthlyReceivableRepository;
+import com.sps.nurul_ikhlas.repositories.StudentBalanceRepository;
+import com.sps.nurul_ikhlas.services.ArrearsSnapshotService;
+import com.sps.nurul_ikhlas.services.MonthlyReceivableService;
+import com.sps.nurul_ikhlas.services.StudentBalanceService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(3)
+public class FinanceLedgerSeeder implements CommandLineRunner {
+
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final StudentBalanceService studentBalanceService;
+    private final MonthlyReceivableRepository monthlyReceivableRepository;
+    private final MonthlyReceivableService monthlyReceivableService;
+    private final ArrearsSnapshotRepository arrearsSnapshotRepository;
+    private final ArrearsSnapshotService arrearsSnapshotService;
+
+    @Override
+    public void run(String... args) throws Exception {
+        seedStudentBalances();
+        seedMonthlyReceivables();
+        seedArrearsSnapshots();
+    }
+
+    private void seedStudentBalances() {
+        if (studentBalanceRepository.count() > 0) {
+            log.info("Student balances already exist. Skipping...");
+            return;
+        }
+
+        log.info("Building student balances from payment history...");
+        int rows = studentBalanceService.rebuild();
+        log.info("Student balances built successfully ({} rows).", rows);
+    }
+
+    private void seedMonthlyReceivables() {
+        if (monthlyReceivableRepository.count() > 0) {
+            log.info("Monthly receivables already exist. Skipping...");
+            return;
+        }
+
+        log.info("Allocating paid transactions to monthly receivables...");
+        int allocated = monthlyReceivableService.rebuild();
+        log.info("Monthly receivables built successfully ({} transactions allocated).", allocated);
+    }
+
+    private void seedArrearsSnapshots() {
+        if (arrearsSnapshotRepository.count() > 0) {
+            log.info("Arrears snapshots already exist. Skipping...");
+            return;
+        }
+
+        log.info("Building initial arrears snapshot...");
+        int students = arrearsSnapshotService.rebuildAll();
+        log.info("Arrears snapshot built successfully ({} students).", students);
+    }
+}
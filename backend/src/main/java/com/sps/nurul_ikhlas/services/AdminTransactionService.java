@@ -1,15 +1,29 @@
 package com.sps.nurul_ikhlas.services;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
 import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+import com.sps.nurul_ikhlas.payload.response.BulkCancelOrderResponse;
+import com.sps.nurul_ikhlas.payload.response.StudentArrearsPageResponse;
 import com.sps.nurul_ikhlas.payload.response.StudentArrearsResponse;
+import com.sps.nurul_ikhlas.payload.response.UniformOrderPageResponse;
 
 public interface AdminTransactionService {
     List<UniformOrder> getAllUniformOrders(OrderStatus status);
 
+    UniformOrderPageResponse getUniformOrderPage(OrderStatus status, PaymentStatus paymentStatus, LocalDate from,
+            LocalDate to, String cursor, Integer size);
+
     UniformOrder updateOrderStatus(String orderId, OrderStatus status);
 
+    BulkCancelOrderResponse cancelOrders(List<String> orderIds);
+
     List<StudentArrearsResponse> getStudentArrears();
+
+    StudentArrearsPageResponse getStudentArrearsPage(String classId, String academicYearId,
+            Integer minMonthsUnpaid, StudentStatus status, String cursor, Integer size);
 }
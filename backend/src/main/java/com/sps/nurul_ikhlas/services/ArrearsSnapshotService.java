@@ -0,0 +1,9 @@
+package com.sps.nurul_ikhlas.services;
+
+public interface ArrearsSnapshotService {
+    void markDirty(String studentId);
+
+    int rebuildAll();
+
+    int refreshDirty();
+}
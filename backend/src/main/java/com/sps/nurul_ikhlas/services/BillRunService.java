@@ -0,0 +1,20 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.entities.BillRun;
+
+public interface BillRunService {
+    /**
+     * Starts generating the month's INFAQ/KAS invoices for every ACTIVE and
+     * ACCEPTED student in the background. An interrupted run for the same
+     * month continues from its checkpoint, and a completed one is run again
+     * for students added since. Invoices that already exist are never duplicated.
+     */
+    BillRun start(YearMonth billMonth);
+
+    BillRun getRun(YearMonth billMonth);
+
+    List<BillRun> getRuns();
+}
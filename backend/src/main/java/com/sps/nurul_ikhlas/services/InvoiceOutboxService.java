@@ -0,0 +1,27 @@
+package com.sps.nurul_ikhlas.services;
+
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+
+public interface InvoiceOutboxService {
+    /**
+     * Saves the transaction as PENDING without an invoice and queues its Xendit
+     * invoice. Joins the caller's transaction. Returns the earlier transaction
+     * instead when the idempotency key was already used, or when an open
+     * PENDING invoice exists for the same student, type, amount and order.
+     */
+    PaymentTransaction enqueue(PaymentTransaction transaction, String externalId, String description,
+            String idempotencyKey);
+
+    /**
+     * Creates invoices for due outbox entries. Xendit is called outside any
+     * database transaction.
+     */
+    int processPending();
+
+    /**
+     * Creates the invoice for one queued transaction right away instead of
+     * waiting for the scheduler. Returns false when the entry is not due, or
+     * another worker holds it, or Xendit failed (the entry is then retried as usual).
+     */
+    boolean dispatch(String transactionId);
+}
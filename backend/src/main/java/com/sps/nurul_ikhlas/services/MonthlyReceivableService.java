@@ -0,0 +1,15 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.entities.MonthlyReceivable;
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+
+public interface MonthlyReceivableService {
+    void allocatePayment(PaymentTransaction transaction);
+
+    List<MonthlyReceivable> getReceivables(String studentId, YearMonth from, YearMonth to);
+
+    int rebuild();
+}
@@ -1,7 +1,8 @@
 package com.sps.nurul_ikhlas.services;
 
 import com.sps.nurul_ikhlas.payload.response.ParentDashboardResponse;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 
 public interface ParentService {
-    ParentDashboardResponse getMyData(String username);
+    ParentDashboardResponse getMyData(UserDetailsImpl currentUser);
 }
@@ -0,0 +1,10 @@
+package com.sps.nurul_ikhlas.services;
+
+public interface PaymentExpiryService {
+    /**
+     * Marks PENDING payment transactions and registration invoices older than
+     * the invoice duration as EXPIRED, in chunks without loading entities.
+     * Returns the number of rows changed.
+     */
+    int expireStale();
+}
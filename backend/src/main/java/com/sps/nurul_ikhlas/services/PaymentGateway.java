@@ -0,0 +1,16 @@
+package com.sps.nurul_ikhlas.services;
+
+import com.sps.nurul_ikhlas.payload.request.InvoiceRequest;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+
+/**
+ * Creates hosted payment invoices. Selected with {@code app.payment.gateway}:
+ * {@code xendit} (default) or {@code stub} for offline and load testing.
+ * Payment results arrive later through the webhook in PaymentController.
+ */
+public interface PaymentGateway {
+    InvoiceResponse createInvoice(InvoiceRequest request) throws Exception;
+
+    // Current state of an invoice, used when its webhook may have been lost
+    InvoiceResponse getInvoice(String invoiceId) throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.sps.nurul_ikhlas.services;
+
+import com.sps.nurul_ikhlas.payload.response.ReconciliationStatsResponse;
+
+public interface PaymentReconciliationService {
+    /**
+     * Asks the gateway for the state of every stale PENDING transaction and
+     * registration invoice. Changes are queued in the webhook inbox, so they
+     * are applied exactly like a callback.
+     */
+    ReconciliationStatsResponse reconcile();
+
+    ReconciliationStatsResponse getStats();
+}
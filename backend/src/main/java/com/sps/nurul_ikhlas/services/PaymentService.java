@@ -1,20 +1,27 @@
 package com.sps.nurul_ikhlas.services;
 
 import java.util.List;
+import java.util.Map;
 
 import com.sps.nurul_ikhlas.models.entities.Parent;
 import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
 import com.sps.nurul_ikhlas.models.entities.Student;
 import com.sps.nurul_ikhlas.payload.request.PaymentRequest;
-import com.xendit.model.Invoice;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 
 public interface PaymentService {
-    Invoice createInvoice(Student student, Parent parent, Double amount) throws Exception;
+    InvoiceResponse createInvoice(Student student, Parent parent, Double amount) throws Exception;
 
-    void handleWebhookCallback(String invoiceId, String status);
+    // Applies Xendit callback statuses keyed by invoice id, called by the webhook inbox in batches
+    void applyWebhookEvents(Map<String, String> statusByInvoice);
 
     // New methods for installment payments
-    PaymentTransaction createPayment(String parentUsername, PaymentRequest request) throws Exception;
+    PaymentTransaction createPayment(UserDetailsImpl currentUser, PaymentRequest request, String idempotencyKey)
+            throws Exception;
 
-    List<PaymentTransaction> getPaymentHistory(String parentUsername);
+    List<PaymentTransaction> getPaymentHistory(UserDetailsImpl currentUser);
+
+    // Polled by the client until the outbox has filled in the invoice URL
+    PaymentTransaction getPayment(UserDetailsImpl currentUser, String transactionId);
 }
@@ -0,0 +1,24 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.sps.nurul_ikhlas.models.entities.AcademicYear;
+import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.enums.BillCategory;
+import com.sps.nurul_ikhlas.models.enums.Period;
+import com.sps.nurul_ikhlas.payload.response.ReferenceDataCacheStatsResponse;
+
+public interface ReferenceDataService {
+    Optional<BillType> getBillTypeByCategory(BillCategory category);
+
+    List<BillType> getBillTypesByPeriod(Period period);
+
+    Optional<AcademicYear> getOpenAcademicYear();
+
+    void invalidateBillTypes();
+
+    void invalidateAcademicYears();
+
+    ReferenceDataCacheStatsResponse getCacheStats();
+}
@@ -0,0 +1,19 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.util.Map;
+
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+
+public interface StudentBalanceService {
+    void recordPayment(String studentId, PaymentType paymentType, Double amount);
+
+    Double getTotalPaid(String studentId, PaymentType paymentType);
+
+    Map<PaymentType, Double> getTotalsByType(String studentId);
+
+    Map<String, Double> getTotalsByStudent(PaymentType paymentType);
+
+    int rebuild();
+
+    int rebuildStudent(String studentId);
+}
@@ -10,33 +10,40 @@ import com.sps.nurul_ikhlas.payload.request.CreateUniformOrderRequest;
 import com.sps.nurul_ikhlas.payload.request.PayBillRequest;
 import com.sps.nurul_ikhlas.payload.response.MonthlyBillDetailResponse;
 import com.sps.nurul_ikhlas.payload.response.MonthlyStatusResponse;
+import com.sps.nurul_ikhlas.payload.response.ParentFinanceOverviewResponse;
 import com.sps.nurul_ikhlas.payload.response.SppInfoResponse;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 
 public interface StudentTransactionService {
     // Uniform Ordering
     List<Uniform> getAvailableUniforms();
 
-    UniformOrder createUniformOrder(String parentUsername, CreateUniformOrderRequest request);
+    UniformOrder createUniformOrder(UserDetailsImpl currentUser, CreateUniformOrderRequest request);
 
-    List<UniformOrder> getMyUniformOrders(String parentUsername);
+    List<UniformOrder> getMyUniformOrders(UserDetailsImpl currentUser);
 
     // SPP Payment (Legacy)
-    SppInfoResponse getSppInfo(String parentUsername);
+    SppInfoResponse getSppInfo(UserDetailsImpl currentUser);
 
-    PaymentTransaction createSppPayment(String parentUsername, Integer months) throws Exception;
+    PaymentTransaction createSppPayment(UserDetailsImpl currentUser, Integer months, String idempotencyKey)
+            throws Exception;
 
-    List<PaymentTransaction> getSppHistory(String parentUsername);
+    List<PaymentTransaction> getSppHistory(UserDetailsImpl currentUser);
 
     // Monthly Infaq/Kas Payment (Summary - Legacy)
-    MonthlyStatusResponse getMonthlyStatus(String parentUsername);
+    MonthlyStatusResponse getMonthlyStatus(UserDetailsImpl currentUser);
 
-    PaymentTransaction createMonthlyPayment(String parentUsername, BillCategory category, Integer months)
-            throws Exception;
+    PaymentTransaction createMonthlyPayment(UserDetailsImpl currentUser, BillCategory category, Integer months,
+            String idempotencyKey) throws Exception;
 
-    List<PaymentTransaction> getMonthlyPaymentHistory(String parentUsername, BillCategory category);
+    List<PaymentTransaction> getMonthlyPaymentHistory(UserDetailsImpl currentUser, BillCategory category);
 
     // Monthly Infaq/Kas Payment (Detailed - New)
-    MonthlyBillDetailResponse getMonthlyBillDetails(String parentUsername);
+    MonthlyBillDetailResponse getMonthlyBillDetails(UserDetailsImpl currentUser);
+
+    PaymentTransaction paySelectedBills(UserDetailsImpl currentUser, PayBillRequest request, String idempotencyKey)
+            throws Exception;
 
-    PaymentTransaction paySelectedBills(String parentUsername, PayBillRequest request) throws Exception;
+    // Finance overview (SPP info, monthly status, monthly details and recent history in one call)
+    ParentFinanceOverviewResponse getFinanceOverview(UserDetailsImpl currentUser);
 }
@@ -0,0 +1,13 @@
+package com.sps.nurul_ikhlas.services;
+
+import com.sps.nurul_ikhlas.payload.response.UniformCatalogSnapshot;
+
+public interface UniformCatalogService {
+    UniformCatalogSnapshot getCatalog();
+
+    /**
+     * Marks the catalog stale after a uniform or its stock changed. Safe to
+     * call inside a transaction; the snapshot is rebuilt again after commit.
+     */
+    void invalidate();
+}
@@ -0,0 +1,35 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+
+import com.sps.nurul_ikhlas.models.entities.UniformOrder;
+
+public interface UniformReservationService {
+    /**
+     * Holds the quantities for a saved order until the reservation expires.
+     * Throws when a uniform does not have enough available stock. Joins the
+     * caller's transaction.
+     */
+    void reserve(UniformOrder order, SortedMap<String, Integer> quantityByUniform);
+
+    /**
+     * Takes the items of orders that just became PAID out of stock and drops
+     * their reservations. Orders already confirmed are ignored.
+     */
+    void confirmPaid(Collection<String> orderIds);
+
+    /**
+     * Gives back the stock of orders being cancelled: held reservations are
+     * released and items already taken out of stock are put back. The orders
+     * must be locked by the caller's transaction.
+     */
+    void restoreStock(List<UniformOrder> orders);
+
+    /**
+     * Gives the stock of expired reservations on unpaid orders back, in
+     * chunks. Returns the number of reservations released.
+     */
+    int releaseExpired();
+}
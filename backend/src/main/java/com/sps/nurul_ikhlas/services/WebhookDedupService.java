@@ -0,0 +1,20 @@
+package com.sps.nurul_ikhlas.services;
+
+import java.util.List;
+
+import com.sps.nurul_ikhlas.models.entities.WebhookInbox;
+
+public interface WebhookDedupService {
+    /**
+     * Checks the in-memory front first and the processed_webhooks table on a
+     * miss. No payment entity is loaded.
+     */
+    boolean isProcessed(String invoiceId, String status);
+
+    /**
+     * Drops events whose (invoice, status) was already applied or repeats
+     * within the batch, and records the rest as processed in the caller's
+     * transaction.
+     */
+    List<WebhookInbox> claimUnprocessed(List<WebhookInbox> events);
+}
@@ -0,0 +1,15 @@
+package com.sps.nurul_ikhlas.services;
+
+public interface WebhookInboxService {
+    /**
+     * Stores the callback for later processing. This is the only work done
+     * while Xendit waits for the response. Returns false for a replay of an
+     * already applied (invoice, status) pair, which is not stored.
+     */
+    boolean enqueue(String invoiceId, String status);
+
+    /**
+     * Applies one batch of pending callbacks in a single transaction.
+     */
+    int processPending();
+}
@@ -27,6 +27,8 @@ import com.sps.nurul_ikhlas.repositories.UniformRepository;
 import com.sps.nurul_ikhlas.repositories.UserRepository;
 import com.sps.nurul_ikhlas.services.AdminService;
 import com.sps.nurul_ikhlas.services.EmailService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+import com.sps.nurul_ikhlas.services.UniformCatalogService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +46,8 @@ public class AdminServiceImpl implements AdminService {
     private final UniformRepository uniformRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ReferenceDataService referenceDataService;
+    private final UniformCatalogService uniformCatalogService;
 
     // =========================================
     // STUDENT MANAGEMENT
@@ -136,6 +140,7 @@ public class AdminServiceImpl implements AdminService {
                 .build();
 
         academicYearRepository.save(academicYear);
+        referenceDataService.invalidateAcademicYears();
         log.info("Created academic year: {} with fee: {}", academicYear.getName(), academicYear.getRegistrationFee());
 
         return academicYear;
@@ -165,6 +170,7 @@ public class AdminServiceImpl implements AdminService {
         academicYear.setRegistrationFee(request.getRegistrationFee());
 
         academicYearRepository.save(academicYear);
+        referenceDataService.invalidateAcademicYears();
         log.info("Updated academic year: {} with fee: {}", academicYear.getName(), academicYear.getRegistrationFee());
 
         return academicYear;
@@ -177,7 +183,7 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public AcademicYear getActiveAcademicYear() {
-        return academicYearRepository.findByStatus(AcademicYearStatus.OPEN)
+        return referenceDataService.getOpenAcademicYear()
                 .orElseThrow(() -> new RuntimeException("Tidak ada tahun ajaran yang aktif"));
     }
 
@@ -192,6 +198,7 @@ public class AdminServiceImpl implements AdminService {
         }
 
         academicYearRepository.delete(academicYear);
+        referenceDataService.invalidateAcademicYears();
         log.info("Deleted academic year: {}", academicYear.getName());
     }
 
@@ -216,6 +223,7 @@ public class AdminServiceImpl implements AdminService {
                 .build();
 
         billTypeRepository.save(billType);
+        referenceDataService.invalidateBillTypes();
         log.info("Created bill type: {} with amount: {}", billType.getName(), billType.getAmount());
 
         return billType;
@@ -239,6 +247,7 @@ public class AdminServiceImpl implements AdminService {
         billType.setDescription(request.getDescription());
 
         billTypeRepository.save(billType);
+        referenceDataService.invalidateBillTypes();
         log.info("Updated bill type: {} with amount: {}", billType.getName(), billType.getAmount());
 
         return billType;
@@ -256,6 +265,7 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException("Jenis tagihan tidak ditemukan"));
 
         billTypeRepository.delete(billType);
+        referenceDataService.invalidateBillTypes();
         log.info("Deleted bill type: {}", billType.getName());
     }
 
@@ -275,6 +285,7 @@ public class AdminServiceImpl implements AdminService {
                 .build();
 
         uniformRepository.save(uniform);
+        uniformCatalogService.invalidate();
         log.info("Created uniform: {} size {} with price: {}", uniform.getName(), uniform.getSize(),
                 uniform.getPrice());
 
@@ -286,6 +297,10 @@ public class AdminServiceImpl implements AdminService {
     public Uniform updateUniform(String id, UniformRequest request) {
         Uniform uniform = uniformRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Seragam tidak ditemukan"));
+        if (request.getStock() < uniform.getReservedStock()) {
+            throw new RuntimeException("Stok tidak boleh kurang dari jumlah yang sedang dipesan ("
+                    + uniform.getReservedStock() + ")");
+        }
 
         uniform.setName(request.getName());
         uniform.setSize(request.getSize());
@@ -294,6 +309,7 @@ public class AdminServiceImpl implements AdminService {
         uniform.setDescription(request.getDescription());
 
         uniformRepository.save(uniform);
+        uniformCatalogService.invalidate();
         log.info("Updated uniform: {} size {} with price: {}", uniform.getName(), uniform.getSize(),
                 uniform.getPrice());
 
@@ -312,6 +328,7 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException("Seragam tidak ditemukan"));
 
         uniformRepository.delete(uniform);
+        uniformCatalogService.invalidate();
         log.info("Deleted uniform: {} size {}", uniform.getName(), uniform.getSize());
     }
 }
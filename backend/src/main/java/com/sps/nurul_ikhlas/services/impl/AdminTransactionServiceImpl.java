@@ -1,27 +1,37 @@
 package com.sps.nurul_ikhlas.services.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.sps.nurul_ikhlas.models.entities.BillType;
-import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
-import com.sps.nurul_ikhlas.models.entities.Student;
+import com.sps.nurul_ikhlas.models.entities.ArrearsSnapshot;
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
 import com.sps.nurul_ikhlas.models.enums.OrderStatus;
-import com.sps.nurul_ikhlas.models.enums.PaymentType;
-import com.sps.nurul_ikhlas.models.enums.Period;
-import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+import com.sps.nurul_ikhlas.payload.response.BulkCancelOrderResponse;
+import com.sps.nurul_ikhlas.payload.response.StudentArrearsPageResponse;
 import com.sps.nurul_ikhlas.payload.response.StudentArrearsResponse;
-import com.sps.nurul_ikhlas.repositories.BillTypeRepository;
-import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
-import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.payload.response.UniformOrderItemResponse;
+import com.sps.nurul_ikhlas.payload.response.UniformOrderPageResponse;
+import com.sps.nurul_ikhlas.payload.response.UniformOrderSummaryResponse;
+import com.sps.nurul_ikhlas.repositories.ArrearsSnapshotRepository;
+import com.sps.nurul_ikhlas.repositories.UniformOrderItemRepository;
 import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
+import com.sps.nurul_ikhlas.repositories.projections.UniformOrderItemRow;
+import com.sps.nurul_ikhlas.repositories.projections.UniformOrderRow;
 import com.sps.nurul_ikhlas.services.AdminTransactionService;
+import com.sps.nurul_ikhlas.services.UniformReservationService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +42,14 @@ import lombok.extern.slf4j.Slf4j;
 public class AdminTransactionServiceImpl implements AdminTransactionService {
 
     private final UniformOrderRepository uniformOrderRepository;
-    private final StudentRepository studentRepository;
-    private final BillTypeRepository billTypeRepository;
-    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final UniformOrderItemRepository uniformOrderItemRepository;
+    private final ArrearsSnapshotRepository arrearsSnapshotRepository;
+    private final UniformReservationService uniformReservationService;
+
+    private static final int DEFAULT_ARREARS_PAGE_SIZE = 50;
+    private static final int MAX_ARREARS_PAGE_SIZE = 200;
+    private static final int DEFAULT_ORDER_PAGE_SIZE = 20;
+    private static final int MAX_ORDER_PAGE_SIZE = 100;
 
     @Override
     public List<UniformOrder> getAllUniformOrders(OrderStatus status) {
@@ -44,11 +59,97 @@ public class AdminTransactionServiceImpl implements AdminTransactionService {
         return uniformOrderRepository.findAllByOrderByOrderDateDesc();
     }
 
+    @Override
+    public UniformOrderPageResponse getUniformOrderPage(OrderStatus status, PaymentStatus paymentStatus,
+            LocalDate from, LocalDate to, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_ORDER_PAGE_SIZE : Math.min(size, MAX_ORDER_PAGE_SIZE);
+
+        LocalDateTime cursorDate = null;
+        String cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeOrderCursor(cursor);
+            cursorDate = LocalDateTime.parse(position[0]);
+            cursorId = position[1];
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<UniformOrderRow> rows = uniformOrderRepository.findOrderPage(
+                status,
+                paymentStatus,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                cursorDate,
+                cursorId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UniformOrderRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        // Items for the whole page in one query instead of one lazy load per order
+        Map<String, List<UniformOrderItemResponse>> itemsByOrder = new HashMap<>();
+        if (!page.isEmpty()) {
+            for (UniformOrderItemRow item : uniformOrderItemRepository.findRowsByOrderIdIn(
+                    page.stream().map(UniformOrderRow::getId).toList())) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>())
+                        .add(UniformOrderItemResponse.builder()
+                                .uniformId(item.getUniformId())
+                                .uniformName(item.getUniformName())
+                                .size(item.getUniformSize())
+                                .quantity(item.getQuantity())
+                                .priceAtMoment(item.getPriceAtMoment())
+                                .subTotal(item.getSubTotal())
+                                .build());
+            }
+        }
+
+        List<UniformOrderSummaryResponse> items = page.stream()
+                .map(row -> UniformOrderSummaryResponse.builder()
+                        .id(row.getId())
+                        .orderDate(row.getOrderDate())
+                        .studentId(row.getStudentId())
+                        .studentName(row.getStudentName() != null ? row.getStudentName() : "Unknown")
+                        .totalAmount(row.getTotalAmount())
+                        .totalPaid(row.getTotalPaid())
+                        .paymentStatus(row.getPaymentStatus())
+                        .orderStatus(row.getOrderStatus())
+                        .stockShortageAt(row.getStockShortageAt())
+                        .items(itemsByOrder.getOrDefault(row.getId(), List.of()))
+                        .build())
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            UniformOrderRow last = page.get(page.size() - 1);
+            nextCursor = encodeOrderCursor(last.getOrderDate(), last.getId());
+        }
+
+        return UniformOrderPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(items.size())
+                .build();
+    }
+
     @Override
     @Transactional
     public UniformOrder updateOrderStatus(String orderId, OrderStatus status) {
-        UniformOrder order = uniformOrderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Pesanan tidak ditemukan"));
+        List<UniformOrder> locked = uniformOrderRepository.lockByIdIn(List.of(orderId));
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Pesanan tidak ditemukan");
+        }
+        UniformOrder order = locked.get(0);
+
+        if (order.getOrderStatus() == OrderStatus.CANCELLED) {
+            if (status != OrderStatus.CANCELLED) {
+                throw new RuntimeException("Pesanan yang sudah dibatalkan tidak dapat diubah");
+            }
+            return order;
+        }
+        if (status == OrderStatus.CANCELLED) {
+            cancel(locked);
+            return order;
+        }
 
         order.setOrderStatus(status);
         uniformOrderRepository.save(order);
@@ -58,64 +159,141 @@ public class AdminTransactionServiceImpl implements AdminTransactionService {
     }
 
     @Override
-    public List<StudentArrearsResponse> getStudentArrears() {
-        List<StudentArrearsResponse> result = new ArrayList<>();
+    @Transactional
+    public BulkCancelOrderResponse cancelOrders(List<String> orderIds) {
+        List<String> ids = orderIds.stream().distinct().toList();
+
+        // The row locks make a concurrent cancel of the same order wait, then see it already cancelled
+        List<UniformOrder> cancellable = uniformOrderRepository.lockByIdIn(ids).stream()
+                .filter(order -> order.getOrderStatus() != OrderStatus.CANCELLED)
+                .toList();
+        cancel(cancellable);
+
+        List<String> cancelled = cancellable.stream().map(UniformOrder::getId).toList();
+        List<String> skipped = ids.stream().filter(id -> !cancelled.contains(id)).toList();
+        return BulkCancelOrderResponse.builder()
+                .cancelledOrderIds(cancelled)
+                .skippedOrderIds(skipped)
+                .build();
+    }
+
+    private void cancel(List<UniformOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        orders.forEach(order -> order.setOrderStatus(OrderStatus.CANCELLED));
+        uniformOrderRepository.saveAll(orders);
+        uniformReservationService.restoreStock(orders);
 
-        // Get SPP BillType (Monthly)
-        BillType sppBillType = billTypeRepository.findByPeriod(Period.MONTHLY)
+        log.info("Cancelled {} uniform orders", orders.size());
+    }
+
+    @Override
+    public List<StudentArrearsResponse> getStudentArrears() {
+        // Read from the precomputed snapshot, already sorted by arrears descending
+        return arrearsSnapshotRepository.findBySppMonthsUnpaidGreaterThanOrderBySppTotalArrearsDesc(0)
                 .stream()
-                .findFirst()
-                .orElse(null);
+                .map(this::toArrearsResponse)
+                .toList();
+    }
+
+    @Override
+    public StudentArrearsPageResponse getStudentArrearsPage(String classId, String academicYearId,
+            Integer minMonthsUnpaid, StudentStatus status, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_ARREARS_PAGE_SIZE : Math.min(size, MAX_ARREARS_PAGE_SIZE);
 
-        if (sppBillType == null) {
-            log.warn("No monthly bill type (SPP) configured");
-            return result;
+        // First page starts above every possible keyset position
+        int cursorMonths = Integer.MAX_VALUE;
+        String cursorId = "";
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            cursorMonths = Integer.parseInt(position[0]);
+            cursorId = position[1];
         }
 
-        Double sppAmount = sppBillType.getAmount();
-        List<Student> students = studentRepository.findAll();
+        // Fetch one extra row to know whether another page exists
+        List<ArrearsSnapshot> rows = arrearsSnapshotRepository.findArrearsPage(
+                classId,
+                academicYearId,
+                status,
+                Math.max(1, minMonthsUnpaid != null ? minMonthsUnpaid : 1),
+                cursorMonths,
+                cursorId,
+                PageRequest.of(0, pageSize + 1));
 
-        for (Student student : students) {
-            if (student.getRegisterDate() == null) {
-                continue;
-            }
+        boolean hasMore = rows.size() > pageSize;
+        List<ArrearsSnapshot> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<StudentArrearsResponse> items = page.stream()
+                .map(this::toArrearsResponse)
+                .toList();
 
-            // Calculate months since registration
-            long monthsActive = ChronoUnit.MONTHS.between(
-                    student.getRegisterDate().withDayOfMonth(1),
-                    LocalDate.now().withDayOfMonth(1)) + 1; // Include current month
-
-            // Get paid SPP transactions
-            List<PaymentTransaction> sppPayments = paymentTransactionRepository
-                    .findByStudentIdOrderByCreatedAtDesc(student.getId())
-                    .stream()
-                    .filter(t -> t.getPaymentType() == PaymentType.SPP && t.getStatus() == TransactionStatus.PAID)
-                    .toList();
-
-            // Count months paid based on total amount
-            Double totalPaidSpp = sppPayments.stream()
-                    .mapToDouble(PaymentTransaction::getAmount)
-                    .sum();
-            int monthsPaid = (int) Math.floor(totalPaidSpp / sppAmount);
-
-            int monthsUnpaid = (int) Math.max(0, monthsActive - monthsPaid);
-            Double totalArrears = monthsUnpaid * sppAmount;
-
-            if (monthsUnpaid > 0) {
-                result.add(StudentArrearsResponse.builder()
-                        .studentId(student.getId())
-                        .studentName(student.getPerson() != null ? student.getPerson().getFullName() : "Unknown")
-                        .className(student.getCurrentClass() != null ? student.getCurrentClass().getName() : "-")
-                        .monthsUnpaid(monthsUnpaid)
-                        .totalArrears(totalArrears)
-                        .sppAmount(sppAmount)
-                        .build());
+        String nextCursor = null;
+        if (hasMore) {
+            ArrearsSnapshot last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getSppMonthsUnpaid(), last.getStudentId());
+        }
+
+        return StudentArrearsPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .size(items.size())
+                .snapshotAt(arrearsSnapshotRepository.findOldestComputedAt())
+                .build();
+    }
+
+    private StudentArrearsResponse toArrearsResponse(ArrearsSnapshot snapshot) {
+        return StudentArrearsResponse.builder()
+                .studentId(snapshot.getStudentId())
+                .studentName(snapshot.getStudentName() != null ? snapshot.getStudentName() : "Unknown")
+                .className(snapshot.getClassName() != null ? snapshot.getClassName() : "-")
+                .monthsUnpaid(snapshot.getSppMonthsUnpaid())
+                .totalArrears(snapshot.getSppTotalArrears())
+                .sppAmount(snapshot.getSppAmount())
+                .infaqMonthsUnpaid(snapshot.getInfaqMonthsUnpaid())
+                .kasMonthsUnpaid(snapshot.getKasMonthsUnpaid())
+                .isCritical(snapshot.getSppIsCritical() || snapshot.getInfaqIsCritical()
+                        || snapshot.getKasIsCritical())
+                .computedAt(snapshot.getComputedAt())
+                .build();
+    }
+
+    private String encodeCursor(Integer monthsUnpaid, String studentId) {
+        String position = monthsUnpaid + ":" + studentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException(position);
             }
+            Integer.parseInt(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor tidak valid");
         }
+    }
 
-        // Sort by arrears descending
-        result.sort((a, b) -> b.getTotalArrears().compareTo(a.getTotalArrears()));
+    private String encodeOrderCursor(LocalDateTime orderDate, String orderId) {
+        String position = orderDate + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
 
-        return result;
+    private String[] decodeOrderCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException(position);
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Cursor tidak valid");
+        }
     }
 }
@@ -0,0 +1,193 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sps.nurul_ikhlas.models.entities.ArrearsSnapshot;
+import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.entities.StudentBalance;
+import com.sps.nurul_ikhlas.models.enums.BillCategory;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.Period;
+import com.sps.nurul_ikhlas.repositories.ArrearsSnapshotRepository;
+import com.sps.nurul_ikhlas.repositories.StudentBalanceRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.repositories.projections.StudentArrearsSource;
+import com.sps.nurul_ikhlas.services.ArrearsSnapshotService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArrearsSnapshotServiceImpl implements ArrearsSnapshotService {
+
+    private final ArrearsSnapshotRepository arrearsSnapshotRepository;
+    private final StudentRepository studentRepository;
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final ReferenceDataService referenceDataService;
+
+    private static final int CRITICAL_MONTHS_UNPAID = 3;
+
+    private final Set<String> dirtyStudents = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void markDirty(String studentId) {
+        // Only queue once the payment is committed, otherwise the refresh
+        // could read the ledger before the new total is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyStudents.add(studentId);
+                }
+            });
+        } else {
+            dirtyStudents.add(studentId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        // Anything queued before this point is covered by the full run
+        dirtyStudents.clear();
+
+        List<StudentArrearsSource> sources = studentRepository.findArrearsSources();
+        Map<String, ArrearsSnapshot> existing = arrearsSnapshotRepository.findAll().stream()
+                .collect(Collectors.toMap(ArrearsSnapshot::getStudentId, Function.identity()));
+        Map<String, List<StudentBalance>> balances = studentBalanceRepository.findAll().stream()
+                .collect(Collectors.groupingBy(StudentBalance::getStudentId));
+
+        int saved = upsert(sources, existing, balances);
+        int removed = arrearsSnapshotRepository.deleteOrphaned();
+
+        log.info("Arrears snapshot rebuilt: {} students, {} removed", saved, removed);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int refreshDirty() {
+        Set<String> studentIds = new HashSet<>();
+        for (String studentId : dirtyStudents) {
+            if (dirtyStudents.remove(studentId)) {
+                studentIds.add(studentId);
+            }
+        }
+        // Newly registered students have no row until the next full run otherwise
+        studentIds.addAll(studentRepository.findIdsWithoutArrearsSnapshot());
+
+        if (studentIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            int saved = refresh(studentIds);
+            log.info("Arrears snapshot refreshed for {} students", saved);
+            return saved;
+        } catch (RuntimeException e) {
+            // Retry on the next run
+            dirtyStudents.addAll(studentIds);
+            throw e;
+        }
+    }
+
+    private int refresh(Collection<String> studentIds) {
+        List<StudentArrearsSource> sources = studentRepository.findArrearsSourcesByIdIn(studentIds);
+        Map<String, ArrearsSnapshot> existing = arrearsSnapshotRepository.findByStudentIdIn(studentIds).stream()
+                .collect(Collectors.toMap(ArrearsSnapshot::getStudentId, Function.identity()));
+        Map<String, List<StudentBalance>> balances = studentBalanceRepository.findByStudentIdIn(studentIds)
+                .stream()
+                .collect(Collectors.groupingBy(StudentBalance::getStudentId));
+
+        return upsert(sources, existing, balances);
+    }
+
+    private int upsert(List<StudentArrearsSource> sources, Map<String, ArrearsSnapshot> existing,
+            Map<String, List<StudentBalance>> balances) {
+        Double sppFee = getFee(referenceDataService.getBillTypesByPeriod(Period.MONTHLY).stream().findFirst()
+                .orElse(null));
+        Double infaqFee = getFee(referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null));
+        Double kasFee = getFee(referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null));
+
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDateTime now = LocalDateTime.now();
+        List<ArrearsSnapshot> snapshots = new ArrayList<>();
+
+        for (StudentArrearsSource source : sources) {
+            Map<PaymentType, Double> totalsPaid = new HashMap<>();
+            for (StudentBalance balance : balances.getOrDefault(source.getStudentId(), List.of())) {
+                totalsPaid.put(balance.getPaymentType(), balance.getTotalPaid());
+            }
+
+            int monthsActive = (int) ChronoUnit.MONTHS.between(source.getRegisterDate().withDayOfMonth(1),
+                    currentMonth) + 1;
+            int sppUnpaid = countMonthsUnpaid(monthsActive, totalsPaid.get(PaymentType.SPP), sppFee);
+            int infaqUnpaid = countMonthsUnpaid(monthsActive, totalsPaid.get(PaymentType.INFAQ), infaqFee);
+            int kasUnpaid = countMonthsUnpaid(monthsActive, totalsPaid.get(PaymentType.KAS), kasFee);
+
+            ArrearsSnapshot snapshot = existing.getOrDefault(source.getStudentId(),
+                    ArrearsSnapshot.builder().studentId(source.getStudentId()).build());
+            snapshot.setStudentName(source.getStudentName());
+            snapshot.setClassId(source.getClassId());
+            snapshot.setClassName(source.getClassName());
+            snapshot.setAcademicYearId(source.getAcademicYearId());
+            snapshot.setStudentStatus(source.getStatus());
+            snapshot.setMonthsActive(monthsActive);
+            snapshot.setSppAmount(sppFee);
+            snapshot.setSppMonthsUnpaid(sppUnpaid);
+            snapshot.setSppTotalArrears(sppUnpaid * orZero(sppFee));
+            snapshot.setInfaqMonthsUnpaid(infaqUnpaid);
+            snapshot.setInfaqTotalArrears(infaqUnpaid * orZero(infaqFee));
+            snapshot.setKasMonthsUnpaid(kasUnpaid);
+            snapshot.setKasTotalArrears(kasUnpaid * orZero(kasFee));
+            snapshot.setTotalArrears(snapshot.getSppTotalArrears() + snapshot.getInfaqTotalArrears()
+                    + snapshot.getKasTotalArrears());
+            snapshot.setSppIsCritical(sppUnpaid >= CRITICAL_MONTHS_UNPAID);
+            snapshot.setInfaqIsCritical(infaqUnpaid >= CRITICAL_MONTHS_UNPAID);
+            snapshot.setKasIsCritical(kasUnpaid >= CRITICAL_MONTHS_UNPAID);
+            snapshot.setComputedAt(now);
+            snapshots.add(snapshot);
+        }
+
+        arrearsSnapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private int countMonthsUnpaid(int monthsActive, Double totalPaid, Double monthlyFee) {
+        if (monthlyFee == null) {
+            return 0;
+        }
+        int monthsPaid = (int) Math.floor(orZero(totalPaid) / monthlyFee);
+        return Math.max(0, monthsActive - monthsPaid);
+    }
+
+    private Double getFee(BillType billType) {
+        return billType != null && billType.getAmount() != null && billType.getAmount() > 0
+                ? billType.getAmount()
+                : null;
+    }
+
+    private double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -14,14 +14,12 @@ import com.sps.nurul_ikhlas.models.entities.People;
 import com.sps.nurul_ikhlas.models.entities.Student;
 import com.sps.nurul_ikhlas.models.entities.User;
 import com.sps.nurul_ikhlas.models.entities.Village;
-import com.sps.nurul_ikhlas.models.enums.AcademicYearStatus;
 import com.sps.nurul_ikhlas.models.enums.AgeGroup;
 import com.sps.nurul_ikhlas.models.enums.Relation;
 import com.sps.nurul_ikhlas.models.enums.StudentStatus;
 import com.sps.nurul_ikhlas.payload.request.RegisterRequest;
 import com.sps.nurul_ikhlas.payload.request.SetupPasswordRequest;
 import com.sps.nurul_ikhlas.payload.response.RegisterResponse;
-import com.sps.nurul_ikhlas.repositories.AcademicYearRepository;
 import com.sps.nurul_ikhlas.repositories.ParentRepository;
 import com.sps.nurul_ikhlas.repositories.PeopleRepository;
 import com.sps.nurul_ikhlas.repositories.StudentRepository;
@@ -29,6 +27,7 @@ import com.sps.nurul_ikhlas.repositories.UserRepository;
 import com.sps.nurul_ikhlas.repositories.VillageRepository;
 import com.sps.nurul_ikhlas.services.AuthService;
 import com.sps.nurul_ikhlas.services.PaymentService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +41,7 @@ public class AuthServiceImpl implements AuthService {
     private final StudentRepository studentRepository;
     private final ParentRepository parentRepository;
     private final VillageRepository villageRepository;
-    private final AcademicYearRepository academicYearRepository;
+    private final ReferenceDataService referenceDataService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final PaymentService paymentService;
@@ -73,7 +72,7 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new RuntimeException("Desa/Kelurahan tidak ditemukan"));
 
         // Fetch active Academic Year
-        AcademicYear academicYear = academicYearRepository.findByStatus(AcademicYearStatus.OPEN)
+        AcademicYear academicYear = referenceDataService.getOpenAcademicYear()
                 .orElseThrow(
                         () -> new RuntimeException("Pendaftaran belum dibuka. Tidak ada tahun ajaran yang aktif."));
 
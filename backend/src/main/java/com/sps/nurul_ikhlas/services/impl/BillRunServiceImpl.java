@@ -0,0 +1,302 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.entities.BillRun;
+import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+import com.sps.nurul_ikhlas.models.entities.Student;
+import com.sps.nurul_ikhlas.models.enums.BillCategory;
+import com.sps.nurul_ikhlas.models.enums.BillRunStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.StudentStatus;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.BillRunRepository;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.services.BillRunService;
+import com.sps.nurul_ikhlas.services.InvoiceOutboxService;
+import com.sps.nurul_ikhlas.services.MonthlyReceivableService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+import com.sps.nurul_ikhlas.utils.RateLimitedExecutor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillRunServiceImpl implements BillRunService {
+
+    private final BillRunRepository billRunRepository;
+    private final StudentRepository studentRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final ReferenceDataService referenceDataService;
+    private final MonthlyReceivableService monthlyReceivableService;
+    private final InvoiceOutboxService invoiceOutboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final List<StudentStatus> BILLABLE = List.of(StudentStatus.ACTIVE, StudentStatus.ACCEPTED);
+
+    @Value("${app.bill-run.page-size}")
+    private int pageSize;
+
+    @Value("${app.bill-run.concurrency}")
+    private int concurrency;
+
+    @Value("${app.bill-run.rate-per-second}")
+    private double ratePerSecond;
+
+    @Value("${app.bill-run.jitter-ms}")
+    private long jitterMs;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("bill-run").daemon().factory());
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void markInterruptedRuns() {
+        // A RUNNING row at startup belongs to a process that died mid-run
+        for (BillRun run : billRunRepository.findByStatus(BillRunStatus.RUNNING)) {
+            run.setStatus(BillRunStatus.INTERRUPTED);
+            run.setUpdatedAt(LocalDateTime.now());
+            billRunRepository.save(run);
+            log.warn("Bill run {} was interrupted at student {}", run.getBillMonth(), run.getLastStudentId());
+        }
+    }
+
+    @Override
+    public BillRun start(YearMonth billMonth) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Pembuatan tagihan bulanan sedang berjalan");
+        }
+
+        try {
+            BillRun run = billRunRepository.findByBillMonth(billMonth)
+                    .orElseGet(() -> BillRun.builder().billMonth(billMonth).build());
+            if (run.getStatus() == BillRunStatus.COMPLETED) {
+                // Start over; students billed last time are skipped by their idempotency key
+                run.setLastStudentId(null);
+                run.setProcessedStudents(0L);
+                run.setInvoicesCreated(0L);
+                run.setInvoicesSkipped(0L);
+                run.setInvoicesFailed(0L);
+                run.setFinishedAt(null);
+            }
+            run.setStatus(BillRunStatus.RUNNING);
+            run.setTotalStudents(studentRepository.countByStatusIn(BILLABLE));
+            run.setLastError(null);
+            run.setStartedAt(LocalDateTime.now());
+            run.setUpdatedAt(LocalDateTime.now());
+            BillRun saved = billRunRepository.save(run);
+
+            log.info("Starting bill run {} for {} students from {}", billMonth, saved.getTotalStudents(),
+                    saved.getLastStudentId() == null ? "the beginning" : "student " + saved.getLastStudentId());
+            runner.submit(() -> execute(saved.getId(), billMonth, saved.getLastStudentId()));
+            return saved;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void execute(String runId, YearMonth billMonth, String checkpoint) {
+        try {
+            List<BillType> bills = Arrays.stream(BillCategory.values())
+                    .map(referenceDataService::getBillTypeByCategory)
+                    .flatMap(Optional::stream)
+                    .filter(bill -> bill.getAmount() != null && bill.getAmount() > 0)
+                    .toList();
+            if (bills.isEmpty()) {
+                throw new RuntimeException("Biaya Infaq/Kas belum dikonfigurasi");
+            }
+
+            try (RateLimitedExecutor executor = new RateLimitedExecutor("bill-run-worker", concurrency,
+                    ratePerSecond, jitterMs)) {
+                String afterId = checkpoint == null ? "" : checkpoint;
+                List<String> page;
+                do {
+                    page = studentRepository.findIdsByStatusIn(BILLABLE, afterId, PageRequest.of(0, pageSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+
+                    // One task per bill, so every invoice dispatched to Xendit takes its own permit
+                    List<Callable<BillResult>> tasks = page.stream()
+                            .flatMap(studentId -> bills.stream()
+                                    .<Callable<BillResult>>map(bill -> () -> billStudent(studentId, billMonth, bill)))
+                            .toList();
+                    BillResult pageResult = new BillResult();
+                    for (Future<BillResult> result : executor.invokeAll(tasks)) {
+                        try {
+                            pageResult.add(result.get());
+                        } catch (ExecutionException e) {
+                            pageResult.failed++;
+                            pageResult.lastError = e.getCause().getMessage();
+                        }
+                    }
+                    afterId = page.get(page.size() - 1);
+                    checkpoint(runId, afterId, page.size(), pageResult);
+                } while (page.size() == pageSize);
+            }
+            finish(runId, BillRunStatus.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(runId, BillRunStatus.INTERRUPTED, "Dihentikan");
+        } catch (Exception e) {
+            log.error("Bill run {} failed: {}", billMonth, e.getMessage());
+            finish(runId, BillRunStatus.INTERRUPTED, e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BillResult billStudent(String studentId, YearMonth billMonth, BillType bill) {
+        BillResult result = new BillResult();
+        try {
+            String transactionId = transactionTemplate.execute(status -> enqueueBill(studentId, billMonth, bill));
+            if (transactionId == null) {
+                result.skipped++;
+            } else {
+                // Create the invoice now so parents open a ready URL, the outbox retries it if Xendit fails
+                invoiceOutboxService.dispatch(transactionId);
+                result.created++;
+            }
+        } catch (Exception e) {
+            result.failed++;
+            result.lastError = e.getMessage();
+            log.warn("Bill run {}: failed to bill {} for student {}: {}", billMonth, bill.getCategory(),
+                    studentId, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Queues one month of the bill for the student. Returns the new transaction
+     * id, or null when there is nothing to bill.
+     */
+    private String enqueueBill(String studentId, YearMonth billMonth, BillType bill) {
+        Student student = studentRepository.findById(studentId).orElse(null);
+        if (student == null || student.getRegisterDate() == null
+                || YearMonth.from(student.getRegisterDate()).isAfter(billMonth)) {
+            return null;
+        }
+
+        // The key makes a resumed or repeated run skip the transaction it already created, even when the
+        // fee was changed in between (the outbox would reject the key for a different amount)
+        String idempotencyKey = "BILL-RUN-" + billMonth + "-" + bill.getCategory();
+        if (paymentTransactionRepository.findByStudentIdAndIdempotencyKey(studentId, idempotencyKey).isPresent()) {
+            return null;
+        }
+
+        PaymentType paymentType = bill.getCategory() == BillCategory.INFAQ ? PaymentType.INFAQ : PaymentType.KAS;
+        boolean paid = monthlyReceivableService.getReceivables(studentId, billMonth, billMonth).stream()
+                .anyMatch(receivable -> receivable.getPaymentType() == paymentType
+                        && receivable.getStatus() == PaymentStatus.PAID);
+        if (paid) {
+            return null;
+        }
+
+        String categoryName = bill.getCategory() == BillCategory.INFAQ ? "Infaq" : "Kas";
+        String description = "Pembayaran " + categoryName + " " + billMonth + " - "
+                + student.getPerson().getFullName();
+        String externalId = categoryName.toUpperCase() + "-" + studentId + "-" + billMonth;
+
+        PaymentTransaction transaction = PaymentTransaction.builder()
+                .student(student)
+                .paymentType(paymentType)
+                .amount(bill.getAmount())
+                .status(TransactionStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        PaymentTransaction queued = invoiceOutboxService.enqueue(transaction, externalId, description,
+                idempotencyKey);
+        return queued == transaction ? queued.getId() : null;
+    }
+
+    private void checkpoint(String runId, String lastStudentId, int students, BillResult pageResult) {
+        BillRun run = billRunRepository.findById(runId).orElseThrow();
+        run.setLastStudentId(lastStudentId);
+        run.setProcessedStudents(run.getProcessedStudents() + students);
+        run.setInvoicesCreated(run.getInvoicesCreated() + pageResult.created);
+        run.setInvoicesSkipped(run.getInvoicesSkipped() + pageResult.skipped);
+        run.setInvoicesFailed(run.getInvoicesFailed() + pageResult.failed);
+        if (pageResult.lastError != null) {
+            run.setLastError(truncate(pageResult.lastError));
+        }
+        run.setUpdatedAt(LocalDateTime.now());
+        billRunRepository.save(run);
+
+        log.info("Bill run {}: {}/{} students, {} invoices created, {} skipped, {} failed", run.getBillMonth(),
+                run.getProcessedStudents(), run.getTotalStudents(), run.getInvoicesCreated(),
+                run.getInvoicesSkipped(), run.getInvoicesFailed());
+    }
+
+    private void finish(String runId, BillRunStatus status, String error) {
+        billRunRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(status);
+            if (error != null) {
+                run.setLastError(truncate(error));
+            }
+            run.setUpdatedAt(LocalDateTime.now());
+            run.setFinishedAt(status == BillRunStatus.COMPLETED ? LocalDateTime.now() : null);
+            billRunRepository.save(run);
+            log.info("Bill run {} {}", run.getBillMonth(), status);
+        });
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @Override
+    public BillRun getRun(YearMonth billMonth) {
+        return billRunRepository.findByBillMonth(billMonth)
+                .orElseThrow(() -> new RuntimeException("Tagihan bulan " + billMonth + " belum pernah dibuat"));
+    }
+
+    @Override
+    public List<BillRun> getRuns() {
+        return billRunRepository.findAllByOrderByBillMonthDesc();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private static class BillResult {
+        long created;
+        long skipped;
+        long failed;
+        String lastError;
+
+        void add(BillResult other) {
+            created += other.created;
+            skipped += other.skipped;
+            failed += other.failed;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.entities.InvoiceOutbox;
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+import com.sps.nurul_ikhlas.models.enums.InvoiceOutboxStatus;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.payload.request.InvoiceRequest;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+import com.sps.nurul_ikhlas.repositories.InvoiceOutboxRepository;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.services.InvoiceOutboxService;
+import com.sps.nurul_ikhlas.services.PaymentGateway;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceOutboxServiceImpl implements InvoiceOutboxService {
+
+    private final InvoiceOutboxRepository invoiceOutboxRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentGateway paymentGateway;
+
+    private static final List<InvoiceOutboxStatus> CLAIMABLE = List.of(InvoiceOutboxStatus.PENDING,
+            InvoiceOutboxStatus.PROCESSING);
+
+    // Longer than the Xendit read timeout, so a live worker never loses its claim
+    private static final long LEASE_SECONDS = 120;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    // Don't hand out an invoice that is about to expire
+    private static final long REUSE_MARGIN_SECONDS = 3600;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    @Value("${app.payment.invoice-duration-seconds}")
+    private long invoiceDurationSeconds;
+
+    @Value("${app.invoice-outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${app.invoice-outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Override
+    @Transactional
+    public PaymentTransaction enqueue(PaymentTransaction transaction, String externalId, String description,
+            String idempotencyKey) {
+        String studentId = transaction.getStudent().getId();
+
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new RuntimeException("Idempotency-Key terlalu panjang (maks. "
+                        + MAX_IDEMPOTENCY_KEY_LENGTH + " karakter)");
+            }
+            PaymentTransaction previous = paymentTransactionRepository
+                    .findByStudentIdAndIdempotencyKey(studentId, idempotencyKey).orElse(null);
+            if (previous != null) {
+                if (!isSameRequest(previous, transaction)) {
+                    throw new RuntimeException("Idempotency-Key sudah digunakan untuk pembayaran lain");
+                }
+                log.info("Returning transaction {} for repeated Idempotency-Key", previous.getId());
+                return previous;
+            }
+            transaction.setIdempotencyKey(idempotencyKey);
+        }
+
+        LocalDateTime openAfter = LocalDateTime.now().minusSeconds(invoiceDurationSeconds - REUSE_MARGIN_SECONDS);
+        List<PaymentTransaction> reusable = paymentTransactionRepository.findReusable(studentId,
+                transaction.getPaymentType(), transaction.getAmount(), transaction.getOrderId(),
+                TransactionStatus.PENDING, openAfter, PageRequest.of(0, 1));
+        if (!reusable.isEmpty()) {
+            log.info("Reusing pending transaction {} for student {}", reusable.get(0).getId(), studentId);
+            return reusable.get(0);
+        }
+
+        transaction.setStatus(TransactionStatus.PENDING);
+        paymentTransactionRepository.save(transaction);
+
+        InvoiceOutbox entry = InvoiceOutbox.builder()
+                .transactionId(transaction.getId())
+                .externalId(externalId)
+                .amount(transaction.getAmount())
+                .description(description)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        invoiceOutboxRepository.save(entry);
+
+        log.info("Queued invoice {} for transaction {}, amount: {}", externalId, transaction.getId(),
+                transaction.getAmount());
+        return transaction;
+    }
+
+    @Override
+    public int processPending() {
+        List<InvoiceOutbox> due = invoiceOutboxRepository.findDue(CLAIMABLE, LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+
+        int sent = 0;
+        for (InvoiceOutbox entry : due) {
+            if (process(entry)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    public boolean dispatch(String transactionId) {
+        return invoiceOutboxRepository.findByTransactionId(transactionId)
+                .filter(entry -> CLAIMABLE.contains(entry.getStatus()))
+                .map(this::process)
+                .orElse(false);
+    }
+
+    private boolean process(InvoiceOutbox entry) {
+        // Millisecond precision survives the round trip through the column, so the lease can be compared later
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime leaseUntil = now.plusSeconds(LEASE_SECONDS);
+        Integer claimed = transactionTemplate.execute(status -> invoiceOutboxRepository.claim(entry.getId(),
+                CLAIMABLE, InvoiceOutboxStatus.PROCESSING, now, leaseUntil));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+        int attempt = entry.getAttempts() + 1;
+
+        InvoiceResponse invoice;
+        try {
+            invoice = paymentGateway.createInvoice(InvoiceRequest.builder()
+                    .externalId(entry.getExternalId())
+                    .amount(entry.getAmount())
+                    .description(entry.getDescription())
+                    .build());
+        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(status -> markAttemptFailed(entry.getId(), leaseUntil,
+                    attempt, e));
+            return false;
+        }
+
+        Boolean recorded = transactionTemplate.execute(status -> markSent(entry, leaseUntil, invoice));
+        if (!Boolean.TRUE.equals(recorded)) {
+            return false;
+        }
+        log.info("Created invoice {} for transaction {}", invoice.getId(), entry.getTransactionId());
+        return true;
+    }
+
+    /**
+     * Loads the entry under lock if this worker's lease is still the current
+     * one. A call that outlived its lease may have been retried by another
+     * worker, which then owns the entry.
+     */
+    private Optional<InvoiceOutbox> lockLease(String entryId, LocalDateTime leaseUntil) {
+        return invoiceOutboxRepository.lockById(entryId)
+                .filter(entry -> entry.getStatus() == InvoiceOutboxStatus.PROCESSING
+                        && leaseUntil.equals(entry.getNextAttemptAt()));
+    }
+
+    private boolean isSameRequest(PaymentTransaction previous, PaymentTransaction request) {
+        return previous.getPaymentType() == request.getPaymentType()
+                && previous.getAmount().equals(request.getAmount())
+                && Objects.equals(previous.getOrderId(), request.getOrderId());
+    }
+
+    private boolean markSent(InvoiceOutbox claimed, LocalDateTime leaseUntil, InvoiceResponse invoice) {
+        InvoiceOutbox entry = lockLease(claimed.getId(), leaseUntil).orElse(null);
+        if (entry == null) {
+            log.warn("Orphaned invoice {} ({}): lease on transaction {} was lost to another worker, "
+                    + "expire it at the gateway", invoice.getId(), claimed.getExternalId(), claimed.getTransactionId());
+            return false;
+        }
+
+        if (paymentTransactionRepository.attachInvoice(entry.getTransactionId(), invoice.getId(),
+                invoice.getInvoiceUrl()) == 0) {
+            log.warn("Orphaned invoice {} ({}): transaction {} already has an invoice, expire it at the gateway",
+                    invoice.getId(), entry.getExternalId(), entry.getTransactionId());
+        }
+
+        entry.setStatus(InvoiceOutboxStatus.SENT);
+        entry.setLastError(null);
+        entry.setProcessedAt(LocalDateTime.now());
+        invoiceOutboxRepository.save(entry);
+        return true;
+    }
+
+    private void markAttemptFailed(String entryId, LocalDateTime leaseUntil, int attempt, Exception error) {
+        InvoiceOutbox entry = lockLease(entryId, leaseUntil).orElse(null);
+        if (entry == null) {
+            log.warn("Ignoring failed attempt on outbox entry {}: lease was lost to another worker", entryId);
+            return;
+        }
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        entry.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+
+        if (attempt >= maxAttempts) {
+            entry.setStatus(InvoiceOutboxStatus.FAILED);
+            entry.setProcessedAt(LocalDateTime.now());
+            paymentTransactionRepository.findById(entry.getTransactionId()).ifPresent(transaction -> {
+                transaction.setStatus(TransactionStatus.FAILED);
+                paymentTransactionRepository.save(transaction);
+            });
+            log.error("Giving up on invoice for transaction {} after {} attempts: {}", entry.getTransactionId(),
+                    attempt, message);
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 5L << Math.min(attempt - 1, 6));
+            entry.setStatus(InvoiceOutboxStatus.PENDING);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            log.warn("Invoice for transaction {} failed (attempt {}), retrying in {}s: {}",
+                    entry.getTransactionId(), attempt, backoff, message);
+        }
+        invoiceOutboxRepository.save(entry);
+    }
+}
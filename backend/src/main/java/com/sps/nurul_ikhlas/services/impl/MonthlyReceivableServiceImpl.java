@@ -0,0 +1,184 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.entities.MonthlyReceivable;
+import com.sps.nurul_ikhlas.models.entities.PaymentAllocation;
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+import com.sps.nurul_ikhlas.models.enums.BillCategory;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.Period;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.MonthlyReceivableRepository;
+import com.sps.nurul_ikhlas.repositories.PaymentAllocationRepository;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.services.MonthlyReceivableService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyReceivableServiceImpl implements MonthlyReceivableService {
+
+    private final MonthlyReceivableRepository monthlyReceivableRepository;
+    private final PaymentAllocationRepository paymentAllocationRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final ReferenceDataService referenceDataService;
+
+    private static final Set<PaymentType> MONTHLY_TYPES = EnumSet.of(PaymentType.INFAQ, PaymentType.KAS,
+            PaymentType.SPP);
+    private static final double EPSILON = 0.005;
+    private static final int MAX_MONTHS_AHEAD = 240;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    /**
+     * Spreads a PAID transaction over the student's oldest months that are not
+     * fully paid yet, starting from the registration month. Missing receivable
+     * rows are created at the current monthly fee.
+     */
+    @Override
+    @Transactional
+    public void allocatePayment(PaymentTransaction transaction) {
+        PaymentType type = transaction.getPaymentType();
+        if (!MONTHLY_TYPES.contains(type) || transaction.getAmount() == null || transaction.getAmount() <= 0) {
+            return;
+        }
+
+        if (paymentAllocationRepository.existsByTransactionId(transaction.getId())) {
+            log.info("Transaction {} already allocated. Skipping...", transaction.getId());
+            return;
+        }
+
+        Double monthlyFee = getMonthlyFee(type);
+        if (monthlyFee == null || monthlyFee <= 0) {
+            log.warn("No monthly fee configured for {}, transaction {} not allocated", type, transaction.getId());
+            return;
+        }
+
+        String studentId = transaction.getStudent().getId();
+        YearMonth startMonth = transaction.getStudent().getRegisterDate() != null
+                ? YearMonth.from(transaction.getStudent().getRegisterDate())
+                : YearMonth.from(transaction.getCreatedAt());
+
+        Map<YearMonth, MonthlyReceivable> receivables = new HashMap<>();
+        for (MonthlyReceivable receivable : monthlyReceivableRepository
+                .findByStudentIdAndPaymentTypeAndBillMonthGreaterThanEqualOrderByBillMonthAsc(studentId, type,
+                        startMonth)) {
+            receivables.put(receivable.getBillMonth(), receivable);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // The transaction's own time, so a rebuild replaying history keeps the original payment dates
+        LocalDateTime paidAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : now;
+        List<MonthlyReceivable> touched = new ArrayList<>();
+        List<Double> applied = new ArrayList<>();
+        double remaining = transaction.getAmount();
+        YearMonth month = startMonth;
+
+        for (int i = 0; i < MAX_MONTHS_AHEAD && remaining > EPSILON; i++, month = month.plusMonths(1)) {
+            MonthlyReceivable receivable = receivables.get(month);
+            if (receivable == null) {
+                receivable = MonthlyReceivable.builder()
+                        .studentId(studentId)
+                        .paymentType(type)
+                        .billMonth(month)
+                        .amountDue(monthlyFee)
+                        .build();
+            }
+
+            double outstanding = receivable.getAmountDue() - receivable.getAmountPaid();
+            if (outstanding <= EPSILON) {
+                continue;
+            }
+
+            double amount = Math.min(outstanding, remaining);
+            remaining -= amount;
+
+            receivable.setAmountPaid(receivable.getAmountPaid() + amount);
+            receivable.setLastTransactionId(transaction.getId());
+            if (receivable.getAmountPaid() >= receivable.getAmountDue() - EPSILON) {
+                receivable.setStatus(PaymentStatus.PAID);
+                receivable.setPaidAt(paidAt);
+            } else {
+                receivable.setStatus(PaymentStatus.PARTIAL);
+            }
+
+            touched.add(receivable);
+            applied.add(amount);
+        }
+
+        monthlyReceivableRepository.saveAll(touched);
+
+        List<PaymentAllocation> allocations = new ArrayList<>();
+        for (int i = 0; i < touched.size(); i++) {
+            allocations.add(PaymentAllocation.builder()
+                    .transactionId(transaction.getId())
+                    .receivableId(touched.get(i).getId())
+                    .amount(applied.get(i))
+                    .allocatedAt(now)
+                    .build());
+        }
+        paymentAllocationRepository.saveAll(allocations);
+
+        log.info("Allocated transaction {} ({} {}) over {} month(s)", transaction.getId(), type,
+                transaction.getAmount(), touched.size());
+        if (remaining > EPSILON) {
+            log.warn("Transaction {} has {} left unallocated", transaction.getId(), remaining);
+        }
+    }
+
+    @Override
+    public List<MonthlyReceivable> getReceivables(String studentId, YearMonth from, YearMonth to) {
+        return monthlyReceivableRepository.findByStudentIdAndBillMonthBetweenOrderByBillMonthAsc(studentId, from,
+                to);
+    }
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        paymentAllocationRepository.deleteAllInBatch();
+        monthlyReceivableRepository.deleteAllInBatch();
+
+        int allocated = 0;
+        int page = 0;
+        List<PaymentTransaction> transactions;
+        do {
+            transactions = paymentTransactionRepository.findByStatusOrderByCreatedAtAsc(TransactionStatus.PAID,
+                    PageRequest.of(page++, REBUILD_PAGE_SIZE));
+            for (PaymentTransaction transaction : transactions) {
+                if (MONTHLY_TYPES.contains(transaction.getPaymentType())) {
+                    allocatePayment(transaction);
+                    allocated++;
+                }
+            }
+        } while (transactions.size() == REBUILD_PAGE_SIZE);
+
+        log.info("Rebuilt monthly receivables from {} paid transactions", allocated);
+        return allocated;
+    }
+
+    private Double getMonthlyFee(PaymentType type) {
+        BillType billType = switch (type) {
+            case INFAQ -> referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null);
+            case KAS -> referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null);
+            default -> referenceDataService.getBillTypesByPeriod(Period.MONTHLY).stream().findFirst().orElse(null);
+        };
+        return billType != null ? billType.getAmount() : null;
+    }
+}
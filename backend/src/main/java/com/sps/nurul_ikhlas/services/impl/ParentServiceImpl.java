@@ -3,10 +3,9 @@ package com.sps.nurul_ikhlas.services.impl;
 import org.springframework.stereotype.Service;
 
 import com.sps.nurul_ikhlas.models.entities.Student;
-import com.sps.nurul_ikhlas.models.entities.User;
 import com.sps.nurul_ikhlas.payload.response.ParentDashboardResponse;
 import com.sps.nurul_ikhlas.repositories.StudentRepository;
-import com.sps.nurul_ikhlas.repositories.UserRepository;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
 import com.sps.nurul_ikhlas.services.ParentService;
 
 import lombok.RequiredArgsConstructor;
@@ -17,29 +16,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ParentServiceImpl implements ParentService {
 
-    private final UserRepository userRepository;
     private final StudentRepository studentRepository;
 
     @Override
-    public ParentDashboardResponse getMyData(String username) {
-        // 1. Find User by username
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Pengguna tidak ditemukan"));
-
-        // 2. Get People linked to User
-        if (user.getPerson() == null) {
-            throw new RuntimeException("Data orang tidak terhubung dengan akun ini");
-        }
-
-        String personId = user.getPerson().getId();
-
-        // 3. Find Student by personId
-        Student student = studentRepository.findByPersonId(personId)
+    public ParentDashboardResponse getMyData(UserDetailsImpl currentUser) {
+        // Student id is carried by the authenticated principal
+        Student student = studentRepository.findById(currentUser.requireStudentId())
                 .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan untuk akun ini"));
 
-        log.info("Fetched student data for parent: {} -> Student: {}", username, student.getPerson().getFullName());
+        log.info("Fetched student data for parent: {} -> Student: {}", currentUser.getUsername(),
+                student.getPerson().getFullName());
 
-        // 4. Build Response DTO
+        // Build Response DTO
         return ParentDashboardResponse.builder()
                 .studentId(student.getId())
                 .studentName(student.getPerson().getFullName())
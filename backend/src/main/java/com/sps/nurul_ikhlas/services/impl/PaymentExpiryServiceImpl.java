@@ -0,0 +1,80 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.services.PaymentExpiryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExpiryServiceImpl implements PaymentExpiryService {
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.payment.invoice-duration-seconds}")
+    private long invoiceDurationSeconds;
+
+    @Value("${app.payment-expiry.grace-minutes}")
+    private long graceMinutes;
+
+    @Value("${app.payment-expiry.chunk-size}")
+    private int chunkSize;
+
+    @Override
+    public int expireStale() {
+        // The grace period leaves Xendit's own EXPIRED (or a late PAID) callback time to arrive first
+        LocalDateTime expiredBefore = LocalDateTime.now().minusSeconds(invoiceDurationSeconds)
+                .minusMinutes(graceMinutes);
+
+        int transactions = expireInChunks(
+                () -> paymentTransactionRepository.findIdsByStatusCreatedBefore(TransactionStatus.PENDING,
+                        expiredBefore, PageRequest.of(0, chunkSize)),
+                ids -> paymentTransactionRepository.updateStatus(ids, List.of(TransactionStatus.PENDING),
+                        TransactionStatus.EXPIRED));
+
+        // Registration only records the date, so a student is expired once the whole day has passed
+        int registrations = expireInChunks(
+                () -> studentRepository.findIdsByPaymentStatusRegisteredBefore("PENDING",
+                        expiredBefore.toLocalDate(), PageRequest.of(0, chunkSize)),
+                ids -> studentRepository.updatePaymentStatus(ids, "PENDING", "EXPIRED"));
+
+        if (transactions > 0 || registrations > 0) {
+            log.info("Expired {} payment transactions and {} registration invoices", transactions, registrations);
+        }
+        return transactions + registrations;
+    }
+
+    /**
+     * Expired rows drop out of the query, so the first chunk is read again
+     * until nothing is left. Each chunk commits on its own to keep locks short.
+     */
+    private int expireInChunks(Supplier<List<String>> nextChunk, Function<List<String>, Integer> expire) {
+        int total = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<String> ids = nextChunk.get();
+                return ids.isEmpty() ? 0 : expire.apply(ids);
+            });
+            if (updated == null || updated == 0) {
+                return total;
+            }
+            total += updated;
+        }
+    }
+}
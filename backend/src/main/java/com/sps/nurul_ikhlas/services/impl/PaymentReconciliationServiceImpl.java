@@ -0,0 +1,157 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+import com.sps.nurul_ikhlas.payload.response.ReconciliationStatsResponse;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.repositories.projections.PendingInvoiceRef;
+import com.sps.nurul_ikhlas.services.PaymentGateway;
+import com.sps.nurul_ikhlas.services.PaymentReconciliationService;
+import com.sps.nurul_ikhlas.services.WebhookInboxService;
+import com.sps.nurul_ikhlas.utils.RateLimitedExecutor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationServiceImpl implements PaymentReconciliationService {
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final StudentRepository studentRepository;
+    private final PaymentGateway paymentGateway;
+    private final WebhookInboxService webhookInboxService;
+
+    @Value("${app.reconciler.stale-minutes}")
+    private long staleMinutes;
+
+    @Value("${app.reconciler.page-size}")
+    private int pageSize;
+
+    @Value("${app.reconciler.concurrency}")
+    private int concurrency;
+
+    @Value("${app.reconciler.rate-per-second}")
+    private double ratePerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile ReconciliationStatsResponse lastRun;
+
+    @Override
+    public ReconciliationStatsResponse reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Rekonsiliasi pembayaran sedang berjalan");
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        RunCounters counters = new RunCounters();
+        try (RateLimitedExecutor executor = new RateLimitedExecutor("payment-reconciler", concurrency,
+                ratePerSecond)) {
+            LocalDateTime staleBefore = startedAt.minusMinutes(staleMinutes);
+            reconcilePages(executor, counters, afterId -> paymentTransactionRepository.findPendingInvoices(
+                    TransactionStatus.PENDING, staleBefore, afterId, PageRequest.of(0, pageSize)));
+            reconcilePages(executor, counters, afterId -> studentRepository.findPendingRegistrationInvoices(
+                    "PENDING", afterId, PageRequest.of(0, pageSize)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment reconciliation interrupted");
+        } finally {
+            running.set(false);
+        }
+
+        runs.incrementAndGet();
+        processed.addAndGet(counters.processed);
+        changed.addAndGet(counters.changed);
+        errors.addAndGet(counters.errors);
+        lastRun = ReconciliationStatsResponse.builder()
+                .lastRunAt(startedAt)
+                .lastRunDurationMs(System.currentTimeMillis() - start)
+                .lastRunProcessed(counters.processed)
+                .lastRunChanged(counters.changed)
+                .lastRunErrors(counters.errors)
+                .build();
+
+        log.info("Payment reconciliation finished: {} checked, {} changed, {} errors in {} ms",
+                counters.processed, counters.changed, counters.errors, lastRun.getLastRunDurationMs());
+        return getStats();
+    }
+
+    private void reconcilePages(RateLimitedExecutor executor, RunCounters counters,
+            Function<String, List<PendingInvoiceRef>> pageLoader) throws InterruptedException {
+        String afterId = "";
+        List<PendingInvoiceRef> page;
+        do {
+            page = pageLoader.apply(afterId);
+            if (page.isEmpty()) {
+                return;
+            }
+
+            List<Callable<Boolean>> tasks = page.stream()
+                    .<Callable<Boolean>>map(ref -> () -> reconcileInvoice(ref.getInvoiceId()))
+                    .toList();
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                counters.processed++;
+                try {
+                    if (result.get()) {
+                        counters.changed++;
+                    }
+                } catch (ExecutionException e) {
+                    counters.errors++;
+                    log.warn("Failed to reconcile invoice: {}", e.getCause().getMessage());
+                }
+            }
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+    }
+
+    private boolean reconcileInvoice(String invoiceId) throws Exception {
+        InvoiceResponse invoice = paymentGateway.getInvoice(invoiceId);
+        if (invoice.getStatus() == null || "PENDING".equalsIgnoreCase(invoice.getStatus())) {
+            return false;
+        }
+        // Same path as a delivered callback: dedup, inbox, batched apply
+        return webhookInboxService.enqueue(invoiceId, invoice.getStatus());
+    }
+
+    @Override
+    public ReconciliationStatsResponse getStats() {
+        ReconciliationStatsResponse last = lastRun;
+        return ReconciliationStatsResponse.builder()
+                .runs(runs.get())
+                .processed(processed.get())
+                .changed(changed.get())
+                .errors(errors.get())
+                .lastRunAt(last != null ? last.getLastRunAt() : null)
+                .lastRunDurationMs(last != null ? last.getLastRunDurationMs() : 0)
+                .lastRunProcessed(last != null ? last.getLastRunProcessed() : 0)
+                .lastRunChanged(last != null ? last.getLastRunChanged() : 0)
+                .lastRunErrors(last != null ? last.getLastRunErrors() : 0)
+                .build();
+    }
+
+    private static class RunCounters {
+        long processed;
+        long changed;
+        long errors;
+    }
+}
@@ -1,11 +1,14 @@
 package com.sps.nurul_ikhlas.services.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,21 +16,25 @@ import com.sps.nurul_ikhlas.models.entities.Parent;
 import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
 import com.sps.nurul_ikhlas.models.entities.Student;
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
-import com.sps.nurul_ikhlas.models.entities.User;
 import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
 import com.sps.nurul_ikhlas.models.enums.PaymentType;
 import com.sps.nurul_ikhlas.models.enums.StudentStatus;
 import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.payload.request.InvoiceRequest;
 import com.sps.nurul_ikhlas.payload.request.PaymentRequest;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
 import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
 import com.sps.nurul_ikhlas.repositories.StudentRepository;
 import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
-import com.sps.nurul_ikhlas.repositories.UserRepository;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
+import com.sps.nurul_ikhlas.services.ArrearsSnapshotService;
+import com.sps.nurul_ikhlas.services.InvoiceOutboxService;
+import com.sps.nurul_ikhlas.services.MonthlyReceivableService;
+import com.sps.nurul_ikhlas.services.PaymentGateway;
 import com.sps.nurul_ikhlas.services.PaymentService;
-import com.xendit.Xendit;
-import com.xendit.model.Invoice;
+import com.sps.nurul_ikhlas.services.StudentBalanceService;
+import com.sps.nurul_ikhlas.services.UniformReservationService;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,41 +44,25 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentServiceImpl implements PaymentService {
 
     private final StudentRepository studentRepository;
-    private final UserRepository userRepository;
     private final UniformOrderRepository uniformOrderRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
-
-    @Value("${xendit.api-key}")
-    private String xenditApiKey;
-
-    @Value("${xendit.success-redirect-url}")
-    private String successRedirectUrl;
-
-    @Value("${xendit.failure-redirect-url}")
-    private String failureRedirectUrl;
-
-    @PostConstruct
-    public void init() {
-        Xendit.apiKey = xenditApiKey;
-        log.info("Xendit API initialized");
-    }
+    private final StudentBalanceService studentBalanceService;
+    private final MonthlyReceivableService monthlyReceivableService;
+    private final ArrearsSnapshotService arrearsSnapshotService;
+    private final InvoiceOutboxService invoiceOutboxService;
+    private final PaymentGateway paymentGateway;
+    private final UniformReservationService uniformReservationService;
 
     @Override
-    public Invoice createInvoice(Student student, Parent parent, Double amount) throws Exception {
-        String externalId = "PPDB-" + student.getId();
-        String description = "Pendaftaran PPDB - " + student.getPerson().getFullName();
-        String payerEmail = parent.getEmail();
-
-        Map<String, Object> params = new HashMap<>();
-        params.put("external_id", externalId);
-        params.put("amount", amount);
-        params.put("payer_email", payerEmail);
-        params.put("description", description);
-        params.put("invoice_duration", 86400);
-        params.put("success_redirect_url", successRedirectUrl);
-        params.put("failure_redirect_url", failureRedirectUrl);
-
-        Invoice invoice = Invoice.create(params);
+    public InvoiceResponse createInvoice(Student student, Parent parent, Double amount) throws Exception {
+        InvoiceRequest request = InvoiceRequest.builder()
+                .externalId("PPDB-" + student.getId())
+                .amount(amount)
+                .payerEmail(parent.getEmail())
+                .description("Pendaftaran PPDB - " + student.getPerson().getFullName())
+                .build();
+
+        InvoiceResponse invoice = paymentGateway.createInvoice(request);
         log.info("Created Xendit Invoice: {} for student: {}", invoice.getId(), student.getId());
 
         return invoice;
@@ -79,16 +70,10 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     @Transactional
-    public PaymentTransaction createPayment(String parentUsername, PaymentRequest request) throws Exception {
-        // 1. Validate User and get Student
-        User user = userRepository.findByUsername(parentUsername)
-                .orElseThrow(() -> new RuntimeException("Pengguna tidak ditemukan"));
-
-        if (user.getPerson() == null) {
-            throw new RuntimeException("Data orang tidak terhubung dengan akun ini");
-        }
-
-        Student student = studentRepository.findByPersonId(user.getPerson().getId())
+    public PaymentTransaction createPayment(UserDetailsImpl currentUser, PaymentRequest request, String idempotencyKey)
+            throws Exception {
+        // 1. Get Student from the authenticated principal
+        Student student = studentRepository.findById(currentUser.requireStudentId())
                 .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan untuk akun ini"));
 
         // 2. Validate based on payment type
@@ -111,117 +96,134 @@ public class PaymentServiceImpl implements PaymentService {
             externalId = request.getPaymentType().name() + "-" + student.getId() + "-" + System.currentTimeMillis();
         }
 
-        // 3. Create Xendit Invoice
-        Map<String, Object> params = new HashMap<>();
-        params.put("external_id", externalId);
-        params.put("amount", request.getAmount());
-        params.put("description", description);
-        params.put("invoice_duration", 86400);
-        params.put("success_redirect_url", successRedirectUrl);
-        params.put("failure_redirect_url", failureRedirectUrl);
-
-        Invoice invoice = Invoice.create(params);
-        log.info("Created payment invoice: {} for amount: {}", invoice.getId(), request.getAmount());
-
-        // 4. Create PaymentTransaction record
+        // 3. Create PaymentTransaction record and queue its Xendit invoice
         PaymentTransaction transaction = PaymentTransaction.builder()
                 .student(student)
                 .orderId(request.getOrderId())
                 .paymentType(request.getPaymentType())
                 .amount(request.getAmount())
-                .xenditInvoiceId(invoice.getId())
-                .xenditPaymentUrl(invoice.getInvoiceUrl())
                 .status(TransactionStatus.PENDING)
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        paymentTransactionRepository.save(transaction);
-
-        return transaction;
+        log.info("Queued payment invoice for amount: {}", request.getAmount());
+        return invoiceOutboxService.enqueue(transaction, externalId, description, idempotencyKey);
     }
 
     @Override
-    public List<PaymentTransaction> getPaymentHistory(String parentUsername) {
-        User user = userRepository.findByUsername(parentUsername)
-                .orElseThrow(() -> new RuntimeException("Pengguna tidak ditemukan"));
-
-        if (user.getPerson() == null) {
-            throw new RuntimeException("Data orang tidak terhubung dengan akun ini");
-        }
-
-        Student student = studentRepository.findByPersonId(user.getPerson().getId())
-                .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan untuk akun ini"));
+    public List<PaymentTransaction> getPaymentHistory(UserDetailsImpl currentUser) {
+        return paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(currentUser.requireStudentId());
+    }
 
-        return paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(student.getId());
+    @Override
+    public PaymentTransaction getPayment(UserDetailsImpl currentUser, String transactionId) {
+        return paymentTransactionRepository.findByIdAndStudentId(transactionId, currentUser.requireStudentId())
+                .orElseThrow(() -> new RuntimeException("Transaksi tidak ditemukan"));
     }
 
     @Override
     @Transactional
-    public void handleWebhookCallback(String invoiceId, String status) {
-        log.info("Received webhook callback - Invoice: {}, Status: {}", invoiceId, status);
-
-        // First check if this is a PaymentTransaction (new system)
-        PaymentTransaction transaction = paymentTransactionRepository.findByXenditInvoiceId(invoiceId)
-                .orElse(null);
+    public void applyWebhookEvents(Map<String, String> statusByInvoice) {
+        List<PaymentTransaction> transactions = paymentTransactionRepository
+                .findByXenditInvoiceIdIn(statusByInvoice.keySet());
+
+        List<PaymentTransaction> newlyPaid = new ArrayList<>();
+        List<String> expiredIds = new ArrayList<>();
+        Set<String> matchedInvoices = new HashSet<>();
+        for (PaymentTransaction transaction : transactions) {
+            String status = statusByInvoice.get(transaction.getXenditInvoiceId());
+            matchedInvoices.add(transaction.getXenditInvoiceId());
+
+            // Only transitions count; repeated deliveries leave the transaction untouched
+            if (isPaidStatus(status) && transaction.getStatus() != TransactionStatus.PAID) {
+                newlyPaid.add(transaction);
+            } else if ("EXPIRED".equalsIgnoreCase(status) && transaction.getStatus() == TransactionStatus.PENDING) {
+                expiredIds.add(transaction.getId());
+            }
+        }
 
-        if (transaction != null) {
-            handlePaymentTransactionWebhook(transaction, status);
-            return;
+        if (!newlyPaid.isEmpty()) {
+            applyPaidTransactions(newlyPaid);
         }
+        if (!expiredIds.isEmpty()) {
+            paymentTransactionRepository.updateStatus(expiredIds, List.of(TransactionStatus.PENDING),
+                    TransactionStatus.EXPIRED);
+        }
+        log.info("Applied webhooks: {} paid, {} expired, {} registration", newlyPaid.size(), expiredIds.size(),
+                statusByInvoice.size() - matchedInvoices.size());
+
+        // Invoices without a PaymentTransaction are PPDB registration fees on the student itself
+        Set<String> registrationInvoices = new HashSet<>(statusByInvoice.keySet());
+        registrationInvoices.removeAll(matchedInvoices);
+        if (!registrationInvoices.isEmpty()) {
+            applyRegistrationWebhooks(registrationInvoices, statusByInvoice);
+        }
+    }
 
-        // Fallback to legacy Student payment handling
-        Student student = studentRepository.findAll().stream()
-                .filter(s -> invoiceId.equals(s.getXenditInvoiceId()))
-                .findFirst()
-                .orElse(null);
+    private void applyPaidTransactions(List<PaymentTransaction> transactions) {
+        List<String> ids = transactions.stream().map(PaymentTransaction::getId).toList();
+        paymentTransactionRepository.updateStatus(ids,
+                List.of(TransactionStatus.PENDING, TransactionStatus.EXPIRED, TransactionStatus.FAILED),
+                TransactionStatus.PAID);
+
+        // Ledger totals and uniform order totals are summed per key, one write each
+        Map<String, Map<PaymentType, Double>> ledger = new HashMap<>();
+        Map<String, Double> uniformPayments = new HashMap<>();
+        for (PaymentTransaction transaction : transactions) {
+            String studentId = transaction.getStudent().getId();
+            ledger.computeIfAbsent(studentId, k -> new EnumMap<>(PaymentType.class))
+                    .merge(transaction.getPaymentType(), transaction.getAmount(), Double::sum);
+            monthlyReceivableService.allocatePayment(transaction);
+            arrearsSnapshotService.markDirty(studentId);
 
-        if (student == null) {
-            log.warn("No transaction or student found for invoice: {}", invoiceId);
-            return;
+            if (transaction.getPaymentType() == PaymentType.UNIFORM && transaction.getOrderId() != null) {
+                uniformPayments.merge(transaction.getOrderId(), transaction.getAmount(), Double::sum);
+            }
         }
+        ledger.forEach((studentId, totals) -> totals.forEach(
+                (paymentType, amount) -> studentBalanceService.recordPayment(studentId, paymentType, amount)));
 
-        student.setPaymentStatus(status);
-
-        if ("PAID".equalsIgnoreCase(status) || "SETTLED".equalsIgnoreCase(status)) {
-            student.setStatus(StudentStatus.REGISTERED);
-            log.info("Student {} payment confirmed. Status updated to REGISTERED.", student.getId());
-        } else if ("EXPIRED".equalsIgnoreCase(status)) {
-            student.setPaymentStatus("EXPIRED");
-            log.info("Student {} payment expired.", student.getId());
+        if (!uniformPayments.isEmpty()) {
+            applyUniformPayments(uniformPayments);
         }
+    }
 
-        studentRepository.save(student);
+    private void applyUniformPayments(Map<String, Double> amountByOrder) {
+        // Atomic increment, so concurrent installment webhooks cannot overwrite each other's total
+        amountByOrder.forEach((orderId, amount) -> {
+            int updated = uniformOrderRepository.addPayment(orderId, amount, PaymentStatus.PAID,
+                    PaymentStatus.PARTIAL);
+            if (updated == 0) {
+                log.warn("Uniform order {} not found for payment of {}", orderId, amount);
+            } else {
+                log.info("Added payment of {} to order {}", amount, orderId);
+            }
+        });
+        uniformReservationService.confirmPaid(amountByOrder.keySet());
     }
 
-    private void handlePaymentTransactionWebhook(PaymentTransaction transaction, String status) {
-        if ("PAID".equalsIgnoreCase(status) || "SETTLED".equalsIgnoreCase(status)) {
-            transaction.setStatus(TransactionStatus.PAID);
+    private void applyRegistrationWebhooks(Set<String> invoiceIds, Map<String, String> statusByInvoice) {
+        List<Student> students = studentRepository.findByXenditInvoiceIdIn(invoiceIds);
 
-            // If this is a UNIFORM payment, update the order
-            if (transaction.getPaymentType() == PaymentType.UNIFORM && transaction.getOrderId() != null) {
-                UniformOrder order = uniformOrderRepository.findById(transaction.getOrderId())
-                        .orElse(null);
-
-                if (order != null) {
-                    Double newTotalPaid = order.getTotalPaid() + transaction.getAmount();
-                    order.setTotalPaid(newTotalPaid);
-
-                    if (newTotalPaid >= order.getTotalAmount()) {
-                        order.setPaymentStatus(PaymentStatus.PAID);
-                    } else {
-                        order.setPaymentStatus(PaymentStatus.PARTIAL);
-                    }
-
-                    uniformOrderRepository.save(order);
-                    log.info("Updated order {} - TotalPaid: {}, Status: {}", order.getId(), newTotalPaid,
-                            order.getPaymentStatus());
-                }
+        for (Student student : students) {
+            String status = statusByInvoice.get(student.getXenditInvoiceId());
+            invoiceIds.remove(student.getXenditInvoiceId());
+            student.setPaymentStatus(status);
+
+            if (isPaidStatus(status)) {
+                student.setStatus(StudentStatus.REGISTERED);
+                log.info("Student {} payment confirmed. Status updated to REGISTERED.", student.getId());
+            } else if ("EXPIRED".equalsIgnoreCase(status)) {
+                student.setPaymentStatus("EXPIRED");
+                log.info("Student {} payment expired.", student.getId());
             }
-        } else if ("EXPIRED".equalsIgnoreCase(status)) {
-            transaction.setStatus(TransactionStatus.EXPIRED);
         }
+        studentRepository.saveAll(students);
+
+        invoiceIds.forEach(invoiceId -> log.warn("No transaction or student found for invoice: {}", invoiceId));
+    }
 
-        paymentTransactionRepository.save(transaction);
-        log.info("Updated transaction {} status to {}", transaction.getId(), transaction.getStatus());
+    private static boolean isPaidStatus(String status) {
+        return "PAID".equalsIgnoreCase(status) || "SETTLED".equalsIgnoreCase(status);
     }
 }
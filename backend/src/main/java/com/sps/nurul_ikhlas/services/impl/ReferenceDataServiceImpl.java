@@ -0,0 +1,163 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sps.nurul_ikhlas.models.entities.AcademicYear;
+import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.enums.AcademicYearStatus;
+import com.sps.nurul_ikhlas.models.enums.BillCategory;
+import com.sps.nurul_ikhlas.models.enums.Period;
+import com.sps.nurul_ikhlas.payload.response.ReferenceDataCacheStatsResponse;
+import com.sps.nurul_ikhlas.repositories.AcademicYearRepository;
+import com.sps.nurul_ikhlas.repositories.BillTypeRepository;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process cache for bill types and the open academic year. Entries live
+ * until an admin write invalidates them; there is no time-based expiry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+
+    private final BillTypeRepository billTypeRepository;
+    private final AcademicYearRepository academicYearRepository;
+
+    private static final String BILL_TYPE_PREFIX = "billType:";
+    private static final String ACADEMIC_YEAR_PREFIX = "academicYear:";
+
+    private final Map<String, Object> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // Bumped by every eviction; a load only caches if no eviction ran meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    @Override
+    public Optional<BillType> getBillTypeByCategory(BillCategory category) {
+        return get(BILL_TYPE_PREFIX + "category:" + category,
+                () -> billTypeRepository.findByCategory(category),
+                billType -> billType.map(ReferenceDataServiceImpl::copy));
+    }
+
+    @Override
+    public List<BillType> getBillTypesByPeriod(Period period) {
+        return get(BILL_TYPE_PREFIX + "period:" + period,
+                () -> billTypeRepository.findByPeriod(period),
+                billTypes -> billTypes.stream().map(ReferenceDataServiceImpl::copy).toList());
+    }
+
+    @Override
+    public Optional<AcademicYear> getOpenAcademicYear() {
+        return get(ACADEMIC_YEAR_PREFIX + "open",
+                () -> academicYearRepository.findByStatus(AcademicYearStatus.OPEN),
+                academicYear -> academicYear.map(ReferenceDataServiceImpl::copy));
+    }
+
+    @Override
+    public void invalidateBillTypes() {
+        invalidate(BILL_TYPE_PREFIX);
+    }
+
+    @Override
+    public void invalidateAcademicYears() {
+        invalidate(ACADEMIC_YEAR_PREFIX);
+    }
+
+    @Override
+    public ReferenceDataCacheStatsResponse getCacheStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        return ReferenceDataCacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .invalidations(invalidations.get())
+                .hitRatio(total > 0 ? (double) hitCount / total : 0.0)
+                .entries(cache.size())
+                .build();
+    }
+
+    /**
+     * Caches a detached copy of the loaded value and hands every caller its own
+     * copy, so no caller shares or mutates an instance managed by a session.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Supplier<T> loader, UnaryOperator<T> copy) {
+        Object cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return copy.apply((T) cached);
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        T value = copy.apply(loader.get());
+        if (generation.get() == loadedAt) {
+            cache.put(key, value);
+            // An invalidation between the check and the put may have evicted
+            // before it; drop the value, which may predate that write
+            if (generation.get() != loadedAt) {
+                cache.remove(key, value);
+            }
+        }
+        return copy.apply(value);
+    }
+
+    private void invalidate(String prefix) {
+        invalidations.incrementAndGet();
+        log.info("Reference data cache invalidated: {}*", prefix);
+        evict(prefix);
+
+        // Evict again once the admin write commits, so a read racing the
+        // transaction cannot leave the pre-commit row cached
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(prefix);
+                }
+            });
+        }
+    }
+
+    private void evict(String prefix) {
+        generation.incrementAndGet();
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static BillType copy(BillType billType) {
+        return BillType.builder()
+                .id(billType.getId())
+                .name(billType.getName())
+                .amount(billType.getAmount())
+                .period(billType.getPeriod())
+                .category(billType.getCategory())
+                .description(billType.getDescription())
+                .build();
+    }
+
+    private static AcademicYear copy(AcademicYear academicYear) {
+        return AcademicYear.builder()
+                .id(academicYear.getId())
+                .name(academicYear.getName())
+                .status(academicYear.getStatus())
+                .registrationFee(academicYear.getRegistrationFee())
+                .build();
+    }
+}
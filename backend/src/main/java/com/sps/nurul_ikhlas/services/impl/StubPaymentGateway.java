@@ -0,0 +1,128 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.sps.nurul_ikhlas.payload.request.InvoiceRequest;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+import com.sps.nurul_ikhlas.services.PaymentGateway;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process gateway for offline and load testing. Sleeps for a random
+ * latency, fails at a configurable rate, and posts a synthetic callback to
+ * the Xendit webhook endpoint so the whole payment flow runs without Xendit.
+ */
+@Service
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "stub")
+@RequiredArgsConstructor
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final RestTemplate restTemplate;
+
+    private final ScheduledExecutorService webhookExecutor = Executors.newScheduledThreadPool(2,
+            Thread.ofPlatform().name("stub-webhook-", 0).daemon().factory());
+
+    @Value("${app.payment.stub.latency-min-ms}")
+    private long latencyMinMs;
+
+    @Value("${app.payment.stub.latency-max-ms}")
+    private long latencyMaxMs;
+
+    @Value("${app.payment.stub.failure-rate}")
+    private double failureRate;
+
+    @Value("${app.payment.stub.webhook-enabled}")
+    private boolean webhookEnabled;
+
+    @Value("${app.payment.stub.webhook-delay-ms}")
+    private long webhookDelayMs;
+
+    @Value("${app.payment.stub.webhook-status}")
+    private String webhookStatus;
+
+    @Value("${app.payment.stub.callback-url}")
+    private String callbackUrl;
+
+    @Value("${xendit.webhook-verification-token}")
+    private String webhookVerificationToken;
+
+    @Value("${xendit.success-redirect-url}")
+    private String successRedirectUrl;
+
+    @Override
+    public InvoiceResponse createInvoice(InvoiceRequest request) throws Exception {
+        simulateLatency();
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new RuntimeException("Stub gateway: simulated failure for " + request.getExternalId());
+        }
+
+        String invoiceId = "stub-" + UUID.randomUUID();
+        if (webhookEnabled) {
+            webhookExecutor.schedule(() -> sendWebhook(invoiceId, request), webhookDelayMs, TimeUnit.MILLISECONDS);
+        }
+
+        return InvoiceResponse.builder()
+                .id(invoiceId)
+                .invoiceUrl(successRedirectUrl + "?invoice=" + invoiceId)
+                .status("PENDING")
+                .build();
+    }
+
+    @Override
+    public InvoiceResponse getInvoice(String invoiceId) throws Exception {
+        simulateLatency();
+
+        // Every stub invoice ends in the configured webhook status, whether or not the webhook was sent
+        return InvoiceResponse.builder()
+                .id(invoiceId)
+                .invoiceUrl(successRedirectUrl + "?invoice=" + invoiceId)
+                .status(invoiceId.startsWith("stub-") ? webhookStatus : "PENDING")
+                .build();
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        Thread.sleep(latencyMaxMs > latencyMinMs
+                ? ThreadLocalRandom.current().nextLong(latencyMinMs, latencyMaxMs + 1)
+                : latencyMinMs);
+    }
+
+    private void sendWebhook(String invoiceId, InvoiceRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("x-callback-token", webhookVerificationToken);
+
+        Map<String, Object> payload = Map.of(
+                "id", invoiceId,
+                "external_id", request.getExternalId(),
+                "amount", request.getAmount(),
+                "status", webhookStatus);
+        try {
+            restTemplate.postForEntity(callbackUrl, new HttpEntity<>(payload, headers), String.class);
+        } catch (Exception e) {
+            log.warn("Stub gateway: webhook for {} failed: {}", invoiceId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        webhookExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sps.nurul_ikhlas.models.entities.StudentBalance;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.repositories.StudentBalanceRepository;
+import com.sps.nurul_ikhlas.services.StudentBalanceService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentBalanceServiceImpl implements StudentBalanceService {
+
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+
+    @Override
+    @Transactional
+    public void recordPayment(String studentId, PaymentType paymentType, Double amount) {
+        if (amount == null || amount <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        studentBalanceRepository.addToTotalPaid(UUID.randomUUID().toString(), studentId, paymentType.name(),
+                amount, now);
+
+        log.info("Recorded {} payment of {} for student {}", paymentType, amount, studentId);
+    }
+
+    @Override
+    public Double getTotalPaid(String studentId, PaymentType paymentType) {
+        return getTotalsByType(studentId).getOrDefault(paymentType, 0.0);
+    }
+
+    @Override
+    public Map<PaymentType, Double> getTotalsByType(String studentId) {
+        Map<PaymentType, Double> totals = new EnumMap<>(PaymentType.class);
+        for (StudentBalance balance : studentBalanceRepository.findByStudentId(studentId)) {
+            totals.put(balance.getPaymentType(), balance.getTotalPaid());
+        }
+        return totals;
+    }
+
+    @Override
+    public Map<String, Double> getTotalsByStudent(PaymentType paymentType) {
+        Map<String, Double> totals = new HashMap<>();
+        for (StudentBalance balance : studentBalanceRepository.findByPaymentType(paymentType)) {
+            totals.put(balance.getStudentId(), balance.getTotalPaid());
+        }
+        return totals;
+    }
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StudentBalance> balances = paymentTransactionRepository
+                .sumAmountByStudentAndPaymentType(TransactionStatus.PAID)
+                .stream()
+                .map(total -> StudentBalance.builder()
+                        .studentId(total.getStudentId())
+                        .paymentType(total.getPaymentType())
+                        .totalPaid(total.getTotalAmount())
+                        .updatedAt(now)
+                        .build())
+                .toList();
+
+        studentBalanceRepository.deleteAllInBatch();
+        studentBalanceRepository.saveAll(balances);
+        log.info("Rebuilt {} student balance rows", balances.size());
+
+        return balances.size();
+    }
+
+    @Override
+    @Transactional
+    public int rebuildStudent(String studentId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StudentBalance> balances = paymentTransactionRepository
+                .sumAmountByPaymentType(studentId, TransactionStatus.PAID)
+                .stream()
+                .map(total -> StudentBalance.builder()
+                        .studentId(studentId)
+                        .paymentType(total.getPaymentType())
+                        .totalPaid(total.getTotalAmount())
+                        .updatedAt(now)
+                        .build())
+                .toList();
+
+        studentBalanceRepository.deleteByStudentId(studentId);
+        studentBalanceRepository.saveAll(balances);
+        log.info("Rebuilt {} balance rows for student {}", balances.size(), studentId);
+
+        return balances.size();
+    }
+}
@@ -2,22 +2,27 @@ package com.sps.nurul_ikhlas.services.impl;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sps.nurul_ikhlas.models.entities.BillType;
+import com.sps.nurul_ikhlas.models.entities.MonthlyReceivable;
 import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
 import com.sps.nurul_ikhlas.models.entities.Student;
 import com.sps.nurul_ikhlas.models.entities.Uniform;
 import com.sps.nurul_ikhlas.models.entities.UniformOrder;
 import com.sps.nurul_ikhlas.models.entities.UniformOrderItem;
-import com.sps.nurul_ikhlas.models.entities.User;
 import com.sps.nurul_ikhlas.models.enums.BillCategory;
 import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
 import com.sps.nurul_ikhlas.models.enums.PaymentType;
@@ -27,18 +32,21 @@ import com.sps.nurul_ikhlas.payload.request.CreateUniformOrderRequest;
 import com.sps.nurul_ikhlas.payload.request.PayBillRequest;
 import com.sps.nurul_ikhlas.payload.response.MonthlyBillDetailResponse;
 import com.sps.nurul_ikhlas.payload.response.MonthlyStatusResponse;
+import com.sps.nurul_ikhlas.payload.response.ParentFinanceOverviewResponse;
 import com.sps.nurul_ikhlas.payload.response.SppInfoResponse;
-import com.sps.nurul_ikhlas.repositories.BillTypeRepository;
 import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
 import com.sps.nurul_ikhlas.repositories.StudentRepository;
 import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
 import com.sps.nurul_ikhlas.repositories.UniformRepository;
-import com.sps.nurul_ikhlas.repositories.UserRepository;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
+import com.sps.nurul_ikhlas.services.InvoiceOutboxService;
+import com.sps.nurul_ikhlas.services.MonthlyReceivableService;
+import com.sps.nurul_ikhlas.services.ReferenceDataService;
+import com.sps.nurul_ikhlas.services.StudentBalanceService;
 import com.sps.nurul_ikhlas.services.StudentTransactionService;
-import com.xendit.Xendit;
-import com.xendit.model.Invoice;
+import com.sps.nurul_ikhlas.services.UniformCatalogService;
+import com.sps.nurul_ikhlas.services.UniformReservationService;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -47,48 +55,33 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class StudentTransactionServiceImpl implements StudentTransactionService {
 
-        private final UserRepository userRepository;
         private final StudentRepository studentRepository;
         private final UniformRepository uniformRepository;
         private final UniformOrderRepository uniformOrderRepository;
-        private final BillTypeRepository billTypeRepository;
         private final PaymentTransactionRepository paymentTransactionRepository;
+        private final StudentBalanceService studentBalanceService;
+        private final MonthlyReceivableService monthlyReceivableService;
+        private final ReferenceDataService referenceDataService;
+        private final InvoiceOutboxService invoiceOutboxService;
+        private final UniformReservationService uniformReservationService;
+        private final UniformCatalogService uniformCatalogService;
 
-        @Value("${xendit.api-key}")
-        private String xenditApiKey;
+        private static final int RECENT_TRANSACTIONS_LIMIT = 20;
 
-        @Value("${xendit.success-redirect-url}")
-        private String successRedirectUrl;
-
-        @Value("${xendit.failure-redirect-url}")
-        private String failureRedirectUrl;
-
-        @PostConstruct
-        public void init() {
-                Xendit.apiKey = xenditApiKey;
-        }
-
-        private Student getStudentFromUsername(String parentUsername) {
-                User user = userRepository.findByUsername(parentUsername)
-                                .orElseThrow(() -> new RuntimeException("Pengguna tidak ditemukan"));
-
-                if (user.getPerson() == null) {
-                        throw new RuntimeException("Data orang tidak terhubung dengan akun ini");
-                }
-
-                return studentRepository.findByPersonId(user.getPerson().getId())
+        private Student getStudent(UserDetailsImpl currentUser) {
+                return studentRepository.findById(currentUser.requireStudentId())
                                 .orElseThrow(() -> new RuntimeException("Data siswa tidak ditemukan untuk akun ini"));
         }
 
         @Override
         public List<Uniform> getAvailableUniforms() {
-                return uniformRepository.findByStockGreaterThan(0);
+                return uniformCatalogService.getCatalog().getUniforms();
         }
 
         @Override
         @Transactional
-        public UniformOrder createUniformOrder(String parentUsername, CreateUniformOrderRequest request) {
-                Student student = getStudentFromUsername(parentUsername);
+        public UniformOrder createUniformOrder(UserDetailsImpl currentUser, CreateUniformOrderRequest request) {
+                Student student = getStudent(currentUser);
 
                 UniformOrder order = UniformOrder.builder()
                                 .student(student)
@@ -98,17 +91,20 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                 .paymentStatus(PaymentStatus.UNPAID)
                                 .build();
 
+                // One query for all uniforms; repeated lines for the same uniform are summed
+                SortedMap<String, Integer> quantityByUniform = new TreeMap<>();
+                for (CreateUniformOrderRequest.OrderItemRequest itemReq : request.getItems()) {
+                        quantityByUniform.merge(itemReq.getUniformId(), itemReq.getQuantity(), Integer::sum);
+                }
+                Map<String, Uniform> uniforms = uniformRepository.findAllById(quantityByUniform.keySet()).stream()
+                                .collect(Collectors.toMap(Uniform::getId, Function.identity()));
+
                 Double totalAmount = 0.0;
 
                 for (CreateUniformOrderRequest.OrderItemRequest itemReq : request.getItems()) {
-                        Uniform uniform = uniformRepository.findById(itemReq.getUniformId())
-                                        .orElseThrow(() -> new RuntimeException(
-                                                        "Seragam tidak ditemukan: " + itemReq.getUniformId()));
-
-                        if (uniform.getStock() < itemReq.getQuantity()) {
-                                throw new RuntimeException(
-                                                "Stok tidak cukup untuk: " + uniform.getName() + " (Tersedia: "
-                                                                + uniform.getStock() + ")");
+                        Uniform uniform = uniforms.get(itemReq.getUniformId());
+                        if (uniform == null) {
+                                throw new RuntimeException("Seragam tidak ditemukan: " + itemReq.getUniformId());
                         }
 
                         Double subTotal = uniform.getPrice() * itemReq.getQuantity();
@@ -123,61 +119,43 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                         .build();
 
                         order.getItems().add(orderItem);
-
-                        uniform.setStock(uniform.getStock() - itemReq.getQuantity());
-                        uniformRepository.save(uniform);
-                        log.info("Stock decreased for uniform {}: {} -> {}", uniform.getName(),
-                                        uniform.getStock() + itemReq.getQuantity(), uniform.getStock());
                 }
 
                 order.setTotalAmount(totalAmount);
                 uniformOrderRepository.save(order);
 
-                log.info("Created uniform order for student {} with total: {}", student.getPerson().getFullName(),
-                                totalAmount);
+                // Stock is only held until the order is paid; any shortage rolls back the whole order
+                uniformReservationService.reserve(order, quantityByUniform);
+
+                log.info("Created uniform order for student {} with {} items, total: {}",
+                                student.getPerson().getFullName(), order.getItems().size(), totalAmount);
 
                 return order;
         }
 
         @Override
-        public List<UniformOrder> getMyUniformOrders(String parentUsername) {
-                Student student = getStudentFromUsername(parentUsername);
-                return uniformOrderRepository.findByStudentIdOrderByOrderDateDesc(student.getId());
+        public List<UniformOrder> getMyUniformOrders(UserDetailsImpl currentUser) {
+                return uniformOrderRepository.findByStudentIdOrderByOrderDateDesc(currentUser.requireStudentId());
         }
 
         // SPP Payment Methods
         @Override
-        public SppInfoResponse getSppInfo(String parentUsername) {
-                Student student = getStudentFromUsername(parentUsername);
+        public SppInfoResponse getSppInfo(UserDetailsImpl currentUser) {
+                Student student = getStudent(currentUser);
 
-                BillType sppBillType = billTypeRepository.findByPeriod(Period.MONTHLY)
+                BillType sppBillType = referenceDataService.getBillTypesByPeriod(Period.MONTHLY)
                                 .stream()
                                 .findFirst()
                                 .orElseThrow(() -> new RuntimeException("Biaya SPP belum dikonfigurasi"));
 
-                Double monthlyFee = sppBillType.getAmount();
-
-                // Calculate months active since registration
-                int totalMonthsActive = 0;
-                if (student.getRegisterDate() != null) {
-                        totalMonthsActive = (int) ChronoUnit.MONTHS.between(
-                                        student.getRegisterDate().withDayOfMonth(1),
-                                        LocalDate.now().withDayOfMonth(1)) + 1;
-                }
-
-                // Calculate months paid from transaction history
-                List<PaymentTransaction> sppPayments = paymentTransactionRepository
-                                .findByStudentIdOrderByCreatedAtDesc(student.getId())
-                                .stream()
-                                .filter(t -> t.getPaymentType() == PaymentType.SPP
-                                                && t.getStatus() == TransactionStatus.PAID)
-                                .toList();
-
-                Double totalPaidAmount = sppPayments.stream()
-                                .mapToDouble(PaymentTransaction::getAmount)
-                                .sum();
+                // Calculate months paid from the balance ledger
+                return buildSppInfo(student, sppBillType.getAmount(),
+                                studentBalanceService.getTotalPaid(student.getId(), PaymentType.SPP));
+        }
 
-                int totalMonthsPaid = (int) Math.floor(totalPaidAmount / monthlyFee);
+        private SppInfoResponse buildSppInfo(Student student, Double monthlyFee, Double totalPaidAmount) {
+                int totalMonthsActive = countMonthsActive(student);
+                int totalMonthsPaid = countMonthsPaid(totalPaidAmount, monthlyFee);
                 int monthsUnpaidCount = Math.max(0, totalMonthsActive - totalMonthsPaid);
                 Double totalArrears = monthsUnpaidCount * monthlyFee;
 
@@ -192,10 +170,11 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
 
         @Override
         @Transactional
-        public PaymentTransaction createSppPayment(String parentUsername, Integer months) throws Exception {
-                Student student = getStudentFromUsername(parentUsername);
+        public PaymentTransaction createSppPayment(UserDetailsImpl currentUser, Integer months, String idempotencyKey)
+                        throws Exception {
+                Student student = getStudent(currentUser);
 
-                BillType sppBillType = billTypeRepository.findByPeriod(Period.MONTHLY)
+                BillType sppBillType = referenceDataService.getBillTypesByPeriod(Period.MONTHLY)
                                 .stream()
                                 .findFirst()
                                 .orElseThrow(() -> new RuntimeException("Biaya SPP belum dikonfigurasi"));
@@ -204,69 +183,52 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                 String description = "Pembayaran SPP " + months + " bulan - " + student.getPerson().getFullName();
                 String externalId = "SPP-" + student.getId() + "-" + System.currentTimeMillis();
 
-                // Create Xendit Invoice
-                Map<String, Object> params = new HashMap<>();
-                params.put("external_id", externalId);
-                params.put("amount", amount);
-                params.put("description", description);
-                params.put("invoice_duration", 86400);
-                params.put("success_redirect_url", successRedirectUrl);
-                params.put("failure_redirect_url", failureRedirectUrl);
-
-                Invoice invoice = Invoice.create(params);
-                log.info("Created SPP invoice: {} for {} months, amount: {}", invoice.getId(), months, amount);
-
-                // Save transaction record
+                // Save transaction record, the invoice URL is filled in by the outbox scheduler
                 PaymentTransaction transaction = PaymentTransaction.builder()
                                 .student(student)
                                 .paymentType(PaymentType.SPP)
                                 .amount(amount)
-                                .xenditInvoiceId(invoice.getId())
-                                .xenditPaymentUrl(invoice.getInvoiceUrl())
                                 .status(TransactionStatus.PENDING)
                                 .createdAt(LocalDateTime.now())
                                 .build();
 
-                paymentTransactionRepository.save(transaction);
-
-                return transaction;
+                log.info("Queued SPP invoice for {} months, amount: {}", months, amount);
+                return invoiceOutboxService.enqueue(transaction, externalId, description, idempotencyKey);
         }
 
         @Override
-        public List<PaymentTransaction> getSppHistory(String parentUsername) {
-                Student student = getStudentFromUsername(parentUsername);
-                return paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(student.getId())
-                                .stream()
-                                .filter(t -> t.getPaymentType() == PaymentType.SPP)
-                                .toList();
+        public List<PaymentTransaction> getSppHistory(UserDetailsImpl currentUser) {
+                return paymentTransactionRepository.findByStudentIdAndPaymentTypeOrderByCreatedAtDesc(
+                                currentUser.requireStudentId(), PaymentType.SPP);
         }
 
         // Monthly Infaq/Kas Methods
         @Override
-        public MonthlyStatusResponse getMonthlyStatus(String parentUsername) {
-                Student student = getStudentFromUsername(parentUsername);
+        public MonthlyStatusResponse getMonthlyStatus(UserDetailsImpl currentUser) {
+                Student student = getStudent(currentUser);
 
                 // Get Infaq and Kas bill types
-                BillType infaqBill = billTypeRepository.findByCategory(BillCategory.INFAQ).orElse(null);
-                BillType kasBill = billTypeRepository.findByCategory(BillCategory.KAS).orElse(null);
-
-                int totalMonthsActive = 0;
-                if (student.getRegisterDate() != null) {
-                        totalMonthsActive = (int) ChronoUnit.MONTHS.between(
-                                        student.getRegisterDate().withDayOfMonth(1),
-                                        LocalDate.now().withDayOfMonth(1)) + 1;
-                }
+                BillType infaqBill = referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null);
+                BillType kasBill = referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null);
+
+                return buildMonthlyStatus(student, infaqBill, kasBill,
+                                studentBalanceService.getTotalsByType(student.getId()));
+        }
+
+        private MonthlyStatusResponse buildMonthlyStatus(Student student, BillType infaqBill, BillType kasBill,
+                        Map<PaymentType, Double> totalsPaid) {
+                int totalMonthsActive = countMonthsActive(student);
 
                 // Calculate Infaq status
                 Double infaqFee = infaqBill != null ? infaqBill.getAmount() : 0.0;
-                int infaqPaid = countMonthsPaid(student.getId(), PaymentType.INFAQ, infaqFee);
+                int infaqPaid = countMonthsPaid(totalsPaid.get(PaymentType.INFAQ), infaqFee);
                 int infaqUnpaid = Math.max(0, totalMonthsActive - infaqPaid);
                 boolean infaqIsDue = infaqPaid < totalMonthsActive;
                 boolean infaqIsCritical = infaqUnpaid >= 3;
 
                 // Calculate Kas status
                 Double kasFee = kasBill != null ? kasBill.getAmount() : 0.0;
-                int kasPaid = countMonthsPaid(student.getId(), PaymentType.KAS, kasFee);
+                int kasPaid = countMonthsPaid(totalsPaid.get(PaymentType.KAS), kasFee);
                 int kasUnpaid = Math.max(0, totalMonthsActive - kasPaid);
                 boolean kasIsDue = kasPaid < totalMonthsActive;
                 boolean kasIsCritical = kasUnpaid >= 3;
@@ -288,26 +250,29 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                 .build();
         }
 
-        private int countMonthsPaid(String studentId, PaymentType type, Double monthlyFee) {
-                if (monthlyFee == null || monthlyFee <= 0)
+        private int countMonthsActive(Student student) {
+                if (student.getRegisterDate() == null)
                         return 0;
 
-                Double totalPaid = paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(studentId)
-                                .stream()
-                                .filter(t -> t.getPaymentType() == type && t.getStatus() == TransactionStatus.PAID)
-                                .mapToDouble(PaymentTransaction::getAmount)
-                                .sum();
+                return (int) ChronoUnit.MONTHS.between(
+                                student.getRegisterDate().withDayOfMonth(1),
+                                LocalDate.now().withDayOfMonth(1)) + 1;
+        }
+
+        private int countMonthsPaid(Double totalPaid, Double monthlyFee) {
+                if (totalPaid == null || monthlyFee == null || monthlyFee <= 0)
+                        return 0;
 
                 return (int) Math.floor(totalPaid / monthlyFee);
         }
 
         @Override
         @Transactional
-        public PaymentTransaction createMonthlyPayment(String parentUsername, BillCategory category, Integer months)
-                        throws Exception {
-                Student student = getStudentFromUsername(parentUsername);
+        public PaymentTransaction createMonthlyPayment(UserDetailsImpl currentUser, BillCategory category,
+                        Integer months, String idempotencyKey) throws Exception {
+                Student student = getStudent(currentUser);
 
-                BillType billType = billTypeRepository.findByCategory(category)
+                BillType billType = referenceDataService.getBillTypeByCategory(category)
                                 .orElseThrow(() -> new RuntimeException("Biaya " + category + " belum dikonfigurasi"));
 
                 PaymentType paymentType = category == BillCategory.INFAQ ? PaymentType.INFAQ : PaymentType.KAS;
@@ -319,52 +284,40 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                 String externalId = categoryName.toUpperCase() + "-" + student.getId() + "-"
                                 + System.currentTimeMillis();
 
-                Map<String, Object> params = new HashMap<>();
-                params.put("external_id", externalId);
-                params.put("amount", amount);
-                params.put("description", description);
-                params.put("invoice_duration", 86400);
-                params.put("success_redirect_url", successRedirectUrl);
-                params.put("failure_redirect_url", failureRedirectUrl);
-
-                Invoice invoice = Invoice.create(params);
-                log.info("Created {} invoice: {} for {} months, amount: {}", categoryName, invoice.getId(), months,
-                                amount);
-
                 PaymentTransaction transaction = PaymentTransaction.builder()
                                 .student(student)
                                 .paymentType(paymentType)
                                 .amount(amount)
-                                .xenditInvoiceId(invoice.getId())
-                                .xenditPaymentUrl(invoice.getInvoiceUrl())
                                 .status(TransactionStatus.PENDING)
                                 .createdAt(LocalDateTime.now())
                                 .build();
 
-                paymentTransactionRepository.save(transaction);
-                return transaction;
+                log.info("Queued {} invoice for {} months, amount: {}", categoryName, months, amount);
+                return invoiceOutboxService.enqueue(transaction, externalId, description, idempotencyKey);
         }
 
         @Override
-        public List<PaymentTransaction> getMonthlyPaymentHistory(String parentUsername, BillCategory category) {
-                Student student = getStudentFromUsername(parentUsername);
+        public List<PaymentTransaction> getMonthlyPaymentHistory(UserDetailsImpl currentUser, BillCategory category) {
                 PaymentType type = category == BillCategory.INFAQ ? PaymentType.INFAQ : PaymentType.KAS;
 
-                return paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(student.getId())
-                                .stream()
-                                .filter(t -> t.getPaymentType() == type)
-                                .toList();
+                return paymentTransactionRepository.findByStudentIdAndPaymentTypeOrderByCreatedAtDesc(
+                                currentUser.requireStudentId(), type);
         }
 
         // ===== NEW: Detailed Monthly Bill Methods =====
 
         @Override
-        public MonthlyBillDetailResponse getMonthlyBillDetails(String parentUsername) {
-                Student student = getStudentFromUsername(parentUsername);
+        public MonthlyBillDetailResponse getMonthlyBillDetails(UserDetailsImpl currentUser) {
+                Student student = getStudent(currentUser);
+
+                BillType infaqBill = referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null);
+                BillType kasBill = referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null);
 
-                BillType infaqBill = billTypeRepository.findByCategory(BillCategory.INFAQ).orElse(null);
-                BillType kasBill = billTypeRepository.findByCategory(BillCategory.KAS).orElse(null);
+                return buildMonthlyBillDetails(student, infaqBill, kasBill);
+        }
 
+        private MonthlyBillDetailResponse buildMonthlyBillDetails(Student student, BillType infaqBill,
+                        BillType kasBill) {
                 Double infaqFee = infaqBill != null ? infaqBill.getAmount() : 0.0;
                 Double kasFee = kasBill != null ? kasBill.getAmount() : 0.0;
 
@@ -374,12 +327,13 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                 : LocalDate.now().minusMonths(6).withDayOfMonth(1);
                 LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
 
-                // Get all paid transactions for this student
-                List<PaymentTransaction> allTransactions = paymentTransactionRepository
-                                .findByStudentIdOrderByCreatedAtDesc(student.getId())
-                                .stream()
-                                .filter(t -> t.getStatus() == TransactionStatus.PAID)
-                                .toList();
+                // Receivables already allocated for the whole range, keyed per type and month
+                Map<PaymentType, Map<YearMonth, MonthlyReceivable>> receivables = new HashMap<>();
+                for (MonthlyReceivable receivable : monthlyReceivableService.getReceivables(student.getId(),
+                                YearMonth.from(startDate), YearMonth.from(currentMonth))) {
+                        receivables.computeIfAbsent(receivable.getPaymentType(), k -> new HashMap<>())
+                                        .put(receivable.getBillMonth(), receivable);
+                }
 
                 // Build month items for Infaq and Kas
                 List<MonthlyBillDetailResponse.MonthlyBillItem> infaqItems = new java.util.ArrayList<>();
@@ -387,40 +341,16 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
 
                 LocalDate month = startDate;
                 while (!month.isAfter(currentMonth)) {
-                        String monthKey = month.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
-                        String monthLabel = month.format(java.time.format.DateTimeFormatter.ofPattern("MMMM yyyy",
-                                        new java.util.Locale("id", "ID")));
-
-                        // Check Infaq payment for this month
                         if (infaqBill != null) {
-                                PaymentTransaction infaqPaid = findPaidTransactionForMonth(allTransactions,
-                                                PaymentType.INFAQ, month, infaqFee);
-                                String infaqStatus = determineStatus(month, currentMonth, infaqPaid != null);
-
-                                infaqItems.add(MonthlyBillDetailResponse.MonthlyBillItem.builder()
-                                                .month(monthKey)
-                                                .monthLabel(monthLabel)
-                                                .status(infaqStatus)
-                                                .amount(infaqFee)
-                                                .paidAt(infaqPaid != null ? infaqPaid.getCreatedAt().toString() : null)
-                                                .transactionId(infaqPaid != null ? infaqPaid.getId() : null)
-                                                .build());
+                                infaqItems.add(buildMonthlyBillItem(month, currentMonth, infaqFee,
+                                                receivables.getOrDefault(PaymentType.INFAQ, Map.of())
+                                                                .get(YearMonth.from(month))));
                         }
 
-                        // Check Kas payment for this month
                         if (kasBill != null) {
-                                PaymentTransaction kasPaid = findPaidTransactionForMonth(allTransactions,
-                                                PaymentType.KAS, month, kasFee);
-                                String kasStatus = determineStatus(month, currentMonth, kasPaid != null);
-
-                                kasItems.add(MonthlyBillDetailResponse.MonthlyBillItem.builder()
-                                                .month(monthKey)
-                                                .monthLabel(monthLabel)
-                                                .status(kasStatus)
-                                                .amount(kasFee)
-                                                .paidAt(kasPaid != null ? kasPaid.getCreatedAt().toString() : null)
-                                                .transactionId(kasPaid != null ? kasPaid.getId() : null)
-                                                .build());
+                                kasItems.add(buildMonthlyBillItem(month, currentMonth, kasFee,
+                                                receivables.getOrDefault(PaymentType.KAS, Map.of())
+                                                                .get(YearMonth.from(month))));
                         }
 
                         month = month.plusMonths(1);
@@ -434,32 +364,47 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                 .build();
         }
 
-        private PaymentTransaction findPaidTransactionForMonth(List<PaymentTransaction> transactions, PaymentType type,
-                        LocalDate month, Double monthlyFee) {
-                // Count how many months of this type have been paid
-                double totalPaid = transactions.stream()
-                                .filter(t -> t.getPaymentType() == type)
-                                .mapToDouble(PaymentTransaction::getAmount)
-                                .sum();
-
-                int monthsPaid = (int) Math.floor(totalPaid / monthlyFee);
-
-                // Simple sequential logic: first N months are paid
-                LocalDate firstMonth = transactions.stream()
-                                .filter(t -> t.getPaymentType() == type)
-                                .map(t -> t.getCreatedAt().toLocalDate().withDayOfMonth(1))
-                                .min(LocalDate::compareTo)
-                                .orElse(month);
-
-                long monthIndex = ChronoUnit.MONTHS.between(firstMonth, month);
-
-                if (monthIndex < monthsPaid) {
-                        return transactions.stream()
-                                        .filter(t -> t.getPaymentType() == type)
-                                        .findFirst()
-                                        .orElse(null);
-                }
-                return null;
+        // ===== Finance overview: everything the parent finance pages need in one call =====
+
+        @Override
+        public ParentFinanceOverviewResponse getFinanceOverview(UserDetailsImpl currentUser) {
+                Student student = getStudent(currentUser);
+
+                BillType sppBill = referenceDataService.getBillTypesByPeriod(Period.MONTHLY)
+                                .stream()
+                                .findFirst()
+                                .orElse(null);
+                BillType infaqBill = referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null);
+                BillType kasBill = referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null);
+
+                Map<PaymentType, Double> totalsPaid = studentBalanceService.getTotalsByType(student.getId());
+
+                return ParentFinanceOverviewResponse.builder()
+                                .sppInfo(sppBill != null
+                                                ? buildSppInfo(student, sppBill.getAmount(),
+                                                                totalsPaid.get(PaymentType.SPP))
+                                                : null)
+                                .monthlyStatus(buildMonthlyStatus(student, infaqBill, kasBill, totalsPaid))
+                                .monthlyDetails(buildMonthlyBillDetails(student, infaqBill, kasBill))
+                                .recentTransactions(paymentTransactionRepository.findByStudentIdOrderByCreatedAtDesc(
+                                                student.getId(), PageRequest.of(0, RECENT_TRANSACTIONS_LIMIT)))
+                                .build();
+        }
+
+        private MonthlyBillDetailResponse.MonthlyBillItem buildMonthlyBillItem(LocalDate month, LocalDate currentMonth,
+                        Double monthlyFee, MonthlyReceivable receivable) {
+                boolean isPaid = receivable != null && receivable.getStatus() == PaymentStatus.PAID;
+
+                return MonthlyBillDetailResponse.MonthlyBillItem.builder()
+                                .month(month.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM")))
+                                .monthLabel(month.format(java.time.format.DateTimeFormatter.ofPattern("MMMM yyyy",
+                                                new java.util.Locale("id", "ID"))))
+                                .status(determineStatus(month, currentMonth, isPaid))
+                                .amount(receivable != null ? receivable.getAmountDue() : monthlyFee)
+                                .paidAt(isPaid && receivable.getPaidAt() != null ? receivable.getPaidAt().toString()
+                                                : null)
+                                .transactionId(isPaid ? receivable.getLastTransactionId() : null)
+                                .build();
         }
 
         private String determineStatus(LocalDate month, LocalDate currentMonth, boolean isPaid) {
@@ -474,11 +419,12 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
 
         @Override
         @Transactional
-        public PaymentTransaction paySelectedBills(String parentUsername, PayBillRequest request) throws Exception {
-                Student student = getStudentFromUsername(parentUsername);
+        public PaymentTransaction paySelectedBills(UserDetailsImpl currentUser, PayBillRequest request,
+                        String idempotencyKey) throws Exception {
+                Student student = getStudent(currentUser);
 
-                BillType infaqBill = billTypeRepository.findByCategory(BillCategory.INFAQ).orElse(null);
-                BillType kasBill = billTypeRepository.findByCategory(BillCategory.KAS).orElse(null);
+                BillType infaqBill = referenceDataService.getBillTypeByCategory(BillCategory.INFAQ).orElse(null);
+                BillType kasBill = referenceDataService.getBillTypeByCategory(BillCategory.KAS).orElse(null);
 
                 double totalAmount = 0;
                 StringBuilder description = new StringBuilder("Pembayaran: ");
@@ -504,18 +450,6 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
 
                 String externalId = "MONTHLY-" + student.getId() + "-" + System.currentTimeMillis();
 
-                Map<String, Object> params = new HashMap<>();
-                params.put("external_id", externalId);
-                params.put("amount", totalAmount);
-                params.put("description", description.toString());
-                params.put("invoice_duration", 86400);
-                params.put("success_redirect_url", successRedirectUrl);
-                params.put("failure_redirect_url", failureRedirectUrl);
-
-                Invoice invoice = Invoice.create(params);
-                log.info("Created monthly invoice: {} for Infaq={}, Kas={}, total={}", invoice.getId(), infaqCount,
-                                kasCount, totalAmount);
-
                 // Determine payment type (use first category or INFAQ as default)
                 PaymentType paymentType = infaqCount > 0 ? PaymentType.INFAQ : PaymentType.KAS;
 
@@ -523,13 +457,11 @@ public class StudentTransactionServiceImpl implements StudentTransactionService
                                 .student(student)
                                 .paymentType(paymentType)
                                 .amount(totalAmount)
-                                .xenditInvoiceId(invoice.getId())
-                                .xenditPaymentUrl(invoice.getInvoiceUrl())
                                 .status(TransactionStatus.PENDING)
                                 .createdAt(LocalDateTime.now())
                                 .build();
 
-                paymentTransactionRepository.save(transaction);
-                return transaction;
+                log.info("Queued monthly invoice for Infaq={}, Kas={}, total={}", infaqCount, kasCount, totalAmount);
+                return invoiceOutboxService.enqueue(transaction, externalId, description.toString(), idempotencyKey);
         }
 }
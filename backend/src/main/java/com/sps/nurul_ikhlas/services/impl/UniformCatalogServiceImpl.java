@@ -0,0 +1,114 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sps.nurul_ikhlas.models.entities.Uniform;
+import com.sps.nurul_ikhlas.payload.response.UniformCatalogSnapshot;
+import com.sps.nurul_ikhlas.repositories.UniformRepository;
+import com.sps.nurul_ikhlas.services.UniformCatalogService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process snapshot of the parent uniform catalog. Local writes invalidate
+ * it; the max age bounds how long stock changed by another instance stays
+ * unseen.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniformCatalogServiceImpl implements UniformCatalogService {
+
+    private final UniformRepository uniformRepository;
+
+    @Value("${app.uniform-catalog.max-age-seconds}")
+    private long maxAgeSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<UniformCatalogSnapshot> snapshot = new AtomicReference<>();
+
+    @Override
+    public UniformCatalogSnapshot getCatalog() {
+        UniformCatalogSnapshot current = snapshot.get();
+        long currentVersion = version.get();
+        if (current != null && current.getVersion() == currentVersion
+                && current.getBuiltAt().plusSeconds(maxAgeSeconds).isAfter(LocalDateTime.now())) {
+            return current;
+        }
+
+        // Detached copies, so the snapshot shares no managed entity with the request that built it
+        List<Uniform> uniforms = uniformRepository.findAvailable().stream()
+                .map(UniformCatalogServiceImpl::copy)
+                .toList();
+        UniformCatalogSnapshot rebuilt = UniformCatalogSnapshot.builder()
+                .version(currentVersion)
+                .etag(etag(uniforms))
+                .uniforms(uniforms)
+                .builtAt(LocalDateTime.now())
+                .build();
+
+        // A snapshot loaded before a newer invalidation must not replace a fresher one
+        snapshot.accumulateAndGet(rebuilt,
+                (previous, next) -> previous != null && previous.getVersion() > next.getVersion() ? previous : next);
+        return rebuilt;
+    }
+
+    @Override
+    public void invalidate() {
+        version.incrementAndGet();
+
+        // Bump again once the write commits, so a read racing the transaction
+        // cannot keep serving the pre-commit catalog
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static Uniform copy(Uniform uniform) {
+        return Uniform.builder()
+                .id(uniform.getId())
+                .name(uniform.getName())
+                .size(uniform.getSize())
+                .price(uniform.getPrice())
+                .stock(uniform.getStock())
+                .reservedStock(uniform.getReservedStock())
+                .description(uniform.getDescription())
+                .imageUrl(uniform.getImageUrl())
+                .build();
+    }
+
+    private static String etag(List<Uniform> uniforms) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Uniform uniform : uniforms) {
+                String row = String.join("|", uniform.getId(), uniform.getName(),
+                        String.valueOf(uniform.getSize()), String.valueOf(uniform.getPrice()),
+                        String.valueOf(uniform.getStock()), String.valueOf(uniform.getReservedStock()),
+                        String.valueOf(uniform.getDescription()), String.valueOf(uniform.getImageUrl()));
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
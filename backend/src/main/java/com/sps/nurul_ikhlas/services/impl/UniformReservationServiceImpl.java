@@ -0,0 +1,212 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.entities.Uniform;
+import com.sps.nurul_ikhlas.models.entities.UniformOrder;
+import com.sps.nurul_ikhlas.models.entities.UniformOrderItem;
+import com.sps.nurul_ikhlas.models.entities.UniformReservation;
+import com.sps.nurul_ikhlas.models.enums.OrderStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.repositories.UniformOrderItemRepository;
+import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
+import com.sps.nurul_ikhlas.repositories.UniformRepository;
+import com.sps.nurul_ikhlas.repositories.UniformReservationRepository;
+import com.sps.nurul_ikhlas.repositories.projections.UniformOrderItemRow;
+import com.sps.nurul_ikhlas.repositories.projections.UniformQuantity;
+import com.sps.nurul_ikhlas.services.UniformCatalogService;
+import com.sps.nurul_ikhlas.services.UniformReservationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniformReservationServiceImpl implements UniformReservationService {
+
+    private final UniformRepository uniformRepository;
+    private final UniformOrderRepository uniformOrderRepository;
+    private final UniformOrderItemRepository uniformOrderItemRepository;
+    private final UniformReservationRepository uniformReservationRepository;
+    private final UniformCatalogService uniformCatalogService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.uniform-reservation.ttl-hours}")
+    private long ttlHours;
+
+    @Value("${app.uniform-reservation.chunk-size}")
+    private int chunkSize;
+
+    @Override
+    public void reserve(UniformOrder order, SortedMap<String, Integer> quantityByUniform) {
+        int[] updated = uniformRepository.reserveStocks(quantityByUniform);
+        int index = 0;
+        for (String uniformId : quantityByUniform.keySet()) {
+            if (updated[index++] == 0) {
+                String name = order.getItems().stream()
+                        .map(UniformOrderItem::getUniform)
+                        .filter(uniform -> uniform.getId().equals(uniformId))
+                        .findFirst()
+                        .map(Uniform::getName)
+                        .orElse(uniformId);
+                throw new RuntimeException("Stok tidak cukup untuk: " + name + " (Tersedia: "
+                        + uniformRepository.findAvailableStockById(uniformId) + ")");
+            }
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        List<UniformReservation> reservations = new ArrayList<>();
+        quantityByUniform.forEach((uniformId, quantity) -> reservations.add(UniformReservation.builder()
+                .orderId(order.getId())
+                .uniformId(uniformId)
+                .quantity(quantity)
+                .expiresAt(expiresAt)
+                .build()));
+        uniformReservationRepository.saveAll(reservations);
+        order.setReservedUntil(expiresAt);
+        uniformCatalogService.invalidate();
+
+        log.info("Reserved {} uniforms for order {} until {}", quantityByUniform.size(), order.getId(), expiresAt);
+    }
+
+    @Override
+    public void confirmPaid(Collection<String> orderIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> confirmed = orderIds.stream()
+                .filter(orderId -> uniformOrderRepository.markStockConfirmed(orderId, PaymentStatus.PAID,
+                        OrderStatus.CANCELLED, now) > 0)
+                .toList();
+        if (confirmed.isEmpty()) {
+            return;
+        }
+
+        List<UniformReservation> reservations = uniformReservationRepository.lockByOrderIdIn(confirmed);
+        Map<String, Map<String, Integer>> reservedByOrder = new HashMap<>();
+        SortedMap<String, Integer> held = new TreeMap<>();
+        for (UniformReservation reservation : reservations) {
+            reservedByOrder.computeIfAbsent(reservation.getOrderId(), orderId -> new HashMap<>())
+                    .merge(reservation.getUniformId(), reservation.getQuantity(), Integer::sum);
+            held.merge(reservation.getUniformId(), reservation.getQuantity(), Integer::sum);
+        }
+        release(reservations);
+        uniformRepository.takeStocks(held);
+
+        // Items whose reservation expired before the payment arrived may have been sold to someone else
+        Map<String, SortedMap<String, Integer>> unreservedByOrder = new HashMap<>();
+        for (UniformOrderItemRow item : uniformOrderItemRepository.findRowsByOrderIdIn(confirmed)) {
+            unreservedByOrder.computeIfAbsent(item.getOrderId(), orderId -> new TreeMap<>())
+                    .merge(item.getUniformId(), item.getQuantity(), Integer::sum);
+        }
+        unreservedByOrder.forEach((orderId, unreserved) -> {
+            reservedByOrder.getOrDefault(orderId, Map.of())
+                    .forEach((uniformId, quantity) -> unreserved.merge(uniformId, -quantity, Integer::sum));
+            unreserved.values().removeIf(quantity -> quantity <= 0);
+            if (!unreserved.isEmpty()) {
+                takeAvailable(orderId, unreserved, now);
+            }
+        });
+
+        uniformCatalogService.invalidate();
+        log.info("Confirmed stock for paid uniform orders {}", confirmed);
+    }
+
+    private void takeAvailable(String orderId, SortedMap<String, Integer> quantityByUniform, LocalDateTime now) {
+        int[] updated = uniformRepository.takeAvailableStocks(quantityByUniform);
+        SortedMap<String, Integer> taken = new TreeMap<>();
+        List<String> missing = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : quantityByUniform.entrySet()) {
+            if (updated[index++] == 0) {
+                missing.add(entry.getKey());
+            } else {
+                taken.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        // A short order keeps none of its items, so cancelling it later has nothing to give back
+        uniformRepository.returnStocks(taken);
+        uniformOrderRepository.markStockShortage(orderId, now);
+        log.error("Paid uniform order {} is short of stock for uniforms {}: its reservation had expired",
+                orderId, missing);
+    }
+
+    @Override
+    public void restoreStock(List<UniformOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        release(uniformReservationRepository.lockByOrderIdIn(orders.stream().map(UniformOrder::getId).toList()));
+
+        // Paid orders and orders from before reservations had their items taken out of stock,
+        // except paid orders that found their stock already sold
+        List<String> taken = orders.stream()
+                .filter(order -> order.getStockShortageAt() == null)
+                .filter(order -> order.getStockConfirmedAt() != null || order.getReservedUntil() == null)
+                .map(UniformOrder::getId)
+                .toList();
+        if (!taken.isEmpty()) {
+            SortedMap<String, Integer> returned = new TreeMap<>();
+            for (UniformQuantity row : uniformOrderItemRepository.sumQuantityByUniform(taken)) {
+                returned.put(row.getUniformId(), row.getQuantity().intValue());
+            }
+            uniformRepository.returnStocks(returned);
+        }
+        uniformCatalogService.invalidate();
+        log.info("Restored stock for cancelled uniform orders {}", orders.stream().map(UniformOrder::getId).toList());
+    }
+
+    @Override
+    public int releaseExpired() {
+        int total = 0;
+        while (true) {
+            // Each chunk locks, releases and deletes its rows in its own transaction
+            Integer released = transactionTemplate.execute(status -> {
+                List<UniformReservation> expired = uniformReservationRepository.lockExpired(LocalDateTime.now(),
+                        PaymentStatus.UNPAID, PageRequest.of(0, chunkSize));
+                release(expired);
+                return expired.size();
+            });
+            if (released == null || released == 0) {
+                break;
+            }
+            total += released;
+            if (released < chunkSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            uniformCatalogService.invalidate();
+            log.info("Released {} expired uniform reservations", total);
+        }
+        return total;
+    }
+
+    private void release(List<UniformReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        SortedMap<String, Integer> quantityByUniform = new TreeMap<>();
+        for (UniformReservation reservation : reservations) {
+            quantityByUniform.merge(reservation.getUniformId(), reservation.getQuantity(), Integer::sum);
+        }
+        uniformRepository.releaseStocks(quantityByUniform);
+        uniformReservationRepository.deleteAllInBatch(reservations);
+    }
+}
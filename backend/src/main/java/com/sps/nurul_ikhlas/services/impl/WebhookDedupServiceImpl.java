@@ -0,0 +1,105 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sps.nurul_ikhlas.models.entities.ProcessedWebhook;
+import com.sps.nurul_ikhlas.models.entities.WebhookInbox;
+import com.sps.nurul_ikhlas.repositories.ProcessedWebhookRepository;
+import com.sps.nurul_ikhlas.services.WebhookDedupService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class WebhookDedupServiceImpl implements WebhookDedupService {
+
+    private final ProcessedWebhookRepository processedWebhookRepository;
+
+    @Value("${app.webhook-dedup.cache-size}")
+    private int cacheSize;
+
+    // Access-ordered, so the least recently seen pair is evicted first
+    private Map<String, Boolean> recentlyProcessed;
+
+    @PostConstruct
+    public void init() {
+        recentlyProcessed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public boolean isProcessed(String invoiceId, String status) {
+        String normalized = normalize(status);
+        String key = key(invoiceId, normalized);
+        if (recentlyProcessed.containsKey(key)) {
+            return true;
+        }
+
+        if (processedWebhookRepository.existsByInvoiceIdAndStatus(invoiceId, normalized)) {
+            recentlyProcessed.put(key, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public List<WebhookInbox> claimUnprocessed(List<WebhookInbox> events) {
+        Set<String> invoiceIds = events.stream().map(WebhookInbox::getInvoiceId).collect(Collectors.toSet());
+        Set<String> seen = processedWebhookRepository.findByInvoiceIdIn(invoiceIds).stream()
+                .map(processed -> key(processed.getInvoiceId(), processed.getStatus()))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<WebhookInbox> unprocessed = new ArrayList<>();
+        List<ProcessedWebhook> records = new ArrayList<>();
+        for (WebhookInbox event : events) {
+            String status = normalize(event.getCallbackStatus());
+            if (seen.add(key(event.getInvoiceId(), status))) {
+                unprocessed.add(event);
+                records.add(ProcessedWebhook.builder()
+                        .invoiceId(event.getInvoiceId())
+                        .status(status)
+                        .build());
+            }
+        }
+        processedWebhookRepository.saveAll(records);
+
+        List<String> keys = records.stream().map(record -> key(record.getInvoiceId(), record.getStatus())).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.forEach(key -> recentlyProcessed.put(key, Boolean.TRUE));
+                }
+            });
+        }
+        return unprocessed;
+    }
+
+    private static String normalize(String status) {
+        String upper = status.toUpperCase();
+        return "SETTLED".equals(upper) ? "PAID" : upper;
+    }
+
+    private static String key(String invoiceId, String status) {
+        return invoiceId + "|" + status;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.entities.WebhookInbox;
+import com.sps.nurul_ikhlas.models.enums.WebhookInboxStatus;
+import com.sps.nurul_ikhlas.repositories.WebhookInboxRepository;
+import com.sps.nurul_ikhlas.services.PaymentService;
+import com.sps.nurul_ikhlas.services.WebhookDedupService;
+import com.sps.nurul_ikhlas.services.WebhookInboxService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookInboxServiceImpl implements WebhookInboxService {
+
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final PaymentService paymentService;
+    private final WebhookDedupService webhookDedupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.webhook-inbox.batch-size}")
+    private int batchSize;
+
+    @Value("${app.webhook-inbox.max-attempts}")
+    private int maxAttempts;
+
+    @Override
+    public boolean enqueue(String invoiceId, String status) {
+        if (webhookDedupService.isProcessed(invoiceId, status)) {
+            return false;
+        }
+
+        webhookInboxRepository.save(WebhookInbox.builder()
+                .invoiceId(invoiceId)
+                .callbackStatus(status)
+                .build());
+        return true;
+    }
+
+    @Override
+    public int processPending() {
+        List<WebhookInbox> batch = webhookInboxRepository.findByStatusOrderByReceivedAtAsc(
+                WebhookInboxStatus.PENDING, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+            log.info("Applied {} webhook events", batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            // Isolate the event that breaks the batch so the rest still go through
+            log.warn("Webhook batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        int applied = 0;
+        for (WebhookInbox event : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(List.of(event)));
+                applied++;
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> markAttemptFailed(event.getId(), e));
+            }
+        }
+        return applied;
+    }
+
+    private void apply(List<WebhookInbox> events) {
+        List<String> ids = events.stream().map(WebhookInbox::getId).toList();
+        int claimed = webhookInboxRepository.markProcessed(ids, WebhookInboxStatus.PENDING,
+                WebhookInboxStatus.PROCESSED, LocalDateTime.now());
+        if (claimed != ids.size()) {
+            throw new IllegalStateException("Webhook events already taken by another worker");
+        }
+
+        // Replays queued before the first delivery was applied are dropped here
+        List<WebhookInbox> unprocessed = webhookDedupService.claimUnprocessed(events);
+        if (unprocessed.isEmpty()) {
+            return;
+        }
+
+        // One status per invoice; a PAID/SETTLED delivery wins over anything else in the batch
+        Map<String, String> statusByInvoice = new LinkedHashMap<>();
+        for (WebhookInbox event : unprocessed) {
+            statusByInvoice.merge(event.getInvoiceId(), event.getCallbackStatus(),
+                    (current, next) -> isPaid(current) ? current : next);
+        }
+        paymentService.applyWebhookEvents(statusByInvoice);
+    }
+
+    private static boolean isPaid(String status) {
+        return "PAID".equalsIgnoreCase(status) || "SETTLED".equalsIgnoreCase(status);
+    }
+
+    private void markAttemptFailed(String eventId, RuntimeException error) {
+        WebhookInbox event = webhookInboxRepository.findById(eventId).orElse(null);
+        if (event == null || event.getStatus() != WebhookInboxStatus.PENDING) {
+            return;
+        }
+
+        int attempts = event.getAttempts() + 1;
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        event.setAttempts(attempts);
+        event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        if (attempts >= maxAttempts) {
+            event.setStatus(WebhookInboxStatus.FAILED);
+            event.setProcessedAt(LocalDateTime.now());
+            log.error("Giving up on webhook for invoice {} after {} attempts: {}", event.getInvoiceId(), attempts,
+                    message);
+        }
+        webhookInboxRepository.save(event);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sps.nurul_ikhlas.services.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.sps.nurul_ikhlas.payload.request.InvoiceRequest;
+import com.sps.nurul_ikhlas.payload.response.InvoiceResponse;
+import com.sps.nurul_ikhlas.services.PaymentGateway;
+import com.xendit.Xendit;
+import com.xendit.model.Invoice;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "xendit", matchIfMissing = true)
+@Slf4j
+public class XenditPaymentGateway implements PaymentGateway {
+
+    @Value("${xendit.api-key}")
+    private String xenditApiKey;
+
+    @Value("${xendit.success-redirect-url}")
+    private String successRedirectUrl;
+
+    @Value("${xendit.failure-redirect-url}")
+    private String failureRedirectUrl;
+
+    @Value("${app.payment.invoice-duration-seconds}")
+    private long invoiceDurationSeconds;
+
+    @PostConstruct
+    public void init() {
+        // The SDK only reads the key from this static field
+        Xendit.apiKey = xenditApiKey;
+        log.info("Xendit API initialized");
+    }
+
+    @Override
+    public InvoiceResponse createInvoice(InvoiceRequest request) throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("external_id", request.getExternalId());
+        params.put("amount", request.getAmount());
+        params.put("description", request.getDescription());
+        if (request.getPayerEmail() != null) {
+            params.put("payer_email", request.getPayerEmail());
+        }
+        params.put("invoice_duration", invoiceDurationSeconds);
+        params.put("success_redirect_url", successRedirectUrl);
+        params.put("failure_redirect_url", failureRedirectUrl);
+
+        return toResponse(Invoice.create(params));
+    }
+
+    @Override
+    public InvoiceResponse getInvoice(String invoiceId) throws Exception {
+        return toResponse(Invoice.getById(invoiceId));
+    }
+
+    private InvoiceResponse toResponse(Invoice invoice) {
+        return InvoiceResponse.builder()
+                .id(invoice.getId())
+                .invoiceUrl(invoice.getInvoiceUrl())
+                .status(invoice.getStatus())
+                .build();
+    }
+}
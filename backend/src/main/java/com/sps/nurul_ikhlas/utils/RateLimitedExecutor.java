@@ -0,0 +1,79 @@
+package com.sps.nurul_ikhlas.utils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs tasks on a fixed number of threads and starts at most
+ * {@code permitsPerSecond} of them per second, evenly spaced. Used for jobs
+ * that call an external API for many rows and must stay under its rate limit.
+ * An optional jitter delays each start by a random amount, so the calls do not
+ * hit the API in lockstep.
+ */
+public class RateLimitedExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final long intervalNanos;
+    private final long maxJitterNanos;
+    private long nextStartNanos = System.nanoTime();
+
+    public RateLimitedExecutor(String name, int concurrency, double permitsPerSecond) {
+        this(name, concurrency, permitsPerSecond, 0);
+    }
+
+    public RateLimitedExecutor(String name, int concurrency, double permitsPerSecond, long maxJitterMs) {
+        if (concurrency < 1 || permitsPerSecond <= 0 || maxJitterMs < 0) {
+            throw new IllegalArgumentException(
+                    "concurrency and permitsPerSecond must be positive, maxJitterMs not negative");
+        }
+        this.executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().name(name + "-", 0).daemon().factory());
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.maxJitterNanos = TimeUnit.MILLISECONDS.toNanos(maxJitterMs);
+    }
+
+    /**
+     * Runs all tasks and waits for them. The caller bounds the amount of
+     * queued work by the size of the collection it passes in.
+     */
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        List<Callable<T>> limited = tasks.stream().<Callable<T>>map(task -> () -> {
+            acquire();
+            return task.call();
+        }).toList();
+        return executor.invokeAll(limited);
+    }
+
+    private void acquire() throws InterruptedException {
+        long startAt;
+        synchronized (this) {
+            long now = System.nanoTime();
+            startAt = Math.max(now, nextStartNanos);
+            nextStartNanos = startAt + intervalNanos;
+        }
+        if (maxJitterNanos > 0) {
+            // Only this start moves, the schedule (and so the average rate) stays the same
+            startAt += ThreadLocalRandom.current().nextLong(maxJitterNanos + 1);
+        }
+        long wait = startAt - System.nanoTime();
+        while (wait > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            wait = startAt - System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
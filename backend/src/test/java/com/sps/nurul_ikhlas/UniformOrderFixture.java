@@ -0,0 +1,109 @@
+package com.sps.nurul_ikhlas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import com.sps.nurul_ikhlas.models.entities.People;
+import com.sps.nurul_ikhlas.models.entities.Student;
+import com.sps.nurul_ikhlas.models.entities.Uniform;
+import com.sps.nurul_ikhlas.models.entities.UniformOrder;
+import com.sps.nurul_ikhlas.models.entities.UniformReservation;
+import com.sps.nurul_ikhlas.models.enums.Role;
+import com.sps.nurul_ikhlas.models.enums.UniformSize;
+import com.sps.nurul_ikhlas.payload.request.CreateUniformOrderRequest;
+import com.sps.nurul_ikhlas.repositories.PeopleRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
+import com.sps.nurul_ikhlas.repositories.UniformRepository;
+import com.sps.nurul_ikhlas.repositories.UniformReservationRepository;
+import com.sps.nurul_ikhlas.security.UserDetailsImpl;
+import com.sps.nurul_ikhlas.services.StudentTransactionService;
+
+/**
+ * One parent's student and a set of uniforms, for tests that place uniform
+ * orders through the service. Tear down deletes only the rows it created.
+ */
+@TestComponent
+class UniformOrderFixture {
+
+	@Autowired
+	private StudentTransactionService studentTransactionService;
+
+	@Autowired
+	private PeopleRepository peopleRepository;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private UniformRepository uniformRepository;
+
+	@Autowired
+	private UniformOrderRepository uniformOrderRepository;
+
+	@Autowired
+	private UniformReservationRepository uniformReservationRepository;
+
+	private final List<Uniform> uniforms = new ArrayList<>();
+	private final List<String> orderIds = new ArrayList<>();
+	private People person;
+	private Student student;
+	private UserDetailsImpl parent;
+
+	void setUp(String name, int uniformCount, int stock) {
+		person = peopleRepository.save(People.builder()
+				.id(UUID.randomUUID().toString())
+				.fullName(name)
+				.build());
+		student = studentRepository.save(Student.builder().person(person).build());
+		parent = UserDetailsImpl.fromClaims(person.getId(), name, Role.ORTU, person.getId(), student.getId());
+		for (int i = 0; i < uniformCount; i++) {
+			uniforms.add(uniformRepository.save(Uniform.builder()
+					.name(name + " " + i)
+					.size(UniformSize.M)
+					.price(10000.0)
+					.stock(stock)
+					.build()));
+		}
+	}
+
+	void tearDown() {
+		uniformReservationRepository.deleteAll(uniformReservationRepository.findByOrderIdIn(orderIds));
+		uniformOrderRepository.deleteAllById(orderIds);
+		uniformRepository.deleteAll(uniforms);
+		studentRepository.delete(student);
+		peopleRepository.delete(person);
+		uniforms.clear();
+		orderIds.clear();
+	}
+
+	/** Orders one of each of the first {@code items} uniforms. */
+	UniformOrder order(int items) {
+		List<CreateUniformOrderRequest.OrderItemRequest> lines = new ArrayList<>();
+		for (int i = 0; i < items; i++) {
+			CreateUniformOrderRequest.OrderItemRequest line = new CreateUniformOrderRequest.OrderItemRequest();
+			line.setUniformId(uniforms.get(i).getId());
+			line.setQuantity(1);
+			lines.add(line);
+		}
+		CreateUniformOrderRequest request = new CreateUniformOrderRequest();
+		request.setItems(lines);
+
+		UniformOrder order = studentTransactionService.createUniformOrder(parent, request);
+		orderIds.add(order.getId());
+		return order;
+	}
+
+	Uniform uniform(int index) {
+		return uniformRepository.findById(uniforms.get(index).getId()).orElseThrow();
+	}
+
+	List<UniformReservation> reservations() {
+		return uniformReservationRepository.findByOrderIdIn(orderIds);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.sps.nurul_ikhlas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.sps.nurul_ikhlas.models.entities.People;
+import com.sps.nurul_ikhlas.models.entities.PaymentTransaction;
+import com.sps.nurul_ikhlas.models.entities.Student;
+import com.sps.nurul_ikhlas.models.entities.StudentBalance;
+import com.sps.nurul_ikhlas.models.entities.UniformOrder;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.models.enums.PaymentType;
+import com.sps.nurul_ikhlas.models.enums.TransactionStatus;
+import com.sps.nurul_ikhlas.repositories.PaymentTransactionRepository;
+import com.sps.nurul_ikhlas.repositories.PeopleRepository;
+import com.sps.nurul_ikhlas.repositories.StudentBalanceRepository;
+import com.sps.nurul_ikhlas.repositories.StudentRepository;
+import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
+import com.sps.nurul_ikhlas.services.PaymentService;
+
+@SpringBootTest
+class UniformOrderPaymentConcurrencyTests {
+
+	private static final int CALLBACKS = 100;
+	private static final double INSTALLMENT = 1000.0;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private PeopleRepository peopleRepository;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private StudentBalanceRepository studentBalanceRepository;
+
+	@Autowired
+	private UniformOrderRepository uniformOrderRepository;
+
+	@Autowired
+	private PaymentTransactionRepository paymentTransactionRepository;
+
+	private final List<PaymentTransaction> transactions = new ArrayList<>();
+	private People person;
+	private Student student;
+	private UniformOrder order;
+
+	@BeforeEach
+	void setUp() {
+		// Installments for one order come from one student, so the callbacks also share its balance row
+		person = peopleRepository.save(People.builder()
+				.id(UUID.randomUUID().toString())
+				.fullName("Stress Test")
+				.build());
+		student = studentRepository.save(Student.builder().person(person).build());
+		order = uniformOrderRepository.save(UniformOrder.builder()
+				.student(student)
+				.totalAmount(CALLBACKS * INSTALLMENT)
+				.build());
+
+		for (int i = 0; i < CALLBACKS; i++) {
+			transactions.add(paymentTransactionRepository.save(PaymentTransaction.builder()
+					.student(student)
+					.orderId(order.getId())
+					.paymentType(PaymentType.UNIFORM)
+					.amount(INSTALLMENT)
+					.status(TransactionStatus.PENDING)
+					.xenditInvoiceId("stress-" + order.getId() + "-" + i)
+					.createdAt(LocalDateTime.now())
+					.build()));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		paymentTransactionRepository.deleteAll(transactions);
+		uniformOrderRepository.delete(order);
+		studentBalanceRepository.deleteAll(studentBalanceRepository.findByStudentIdIn(List.of(student.getId())));
+		studentRepository.delete(student);
+		peopleRepository.delete(person);
+	}
+
+	@Test
+	void parallelInstallmentCallbacksAreAllApplied() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> results = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(CALLBACKS)) {
+			for (PaymentTransaction transaction : transactions) {
+				results.add(executor.submit(() -> {
+					start.await();
+					paymentService.applyWebhookEvents(Map.of(transaction.getXenditInvoiceId(), "PAID"));
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+
+		UniformOrder updated = uniformOrderRepository.findById(order.getId()).orElseThrow();
+		assertEquals(CALLBACKS * INSTALLMENT, updated.getTotalPaid());
+		assertEquals(PaymentStatus.PAID, updated.getPaymentStatus());
+		assertEquals(CALLBACKS * INSTALLMENT, studentBalanceRepository.findByStudentIdIn(List.of(student.getId()))
+				.stream()
+				.filter(balance -> balance.getPaymentType() == PaymentType.UNIFORM)
+				.mapToDouble(StudentBalance::getTotalPaid)
+				.sum());
+	}
+
+}
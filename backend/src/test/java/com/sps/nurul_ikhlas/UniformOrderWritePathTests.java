@@ -0,0 +1,60 @@
+package com.sps.nurul_ikhlas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements Hibernate prepares for createUniformOrder. Stock
+ * updates go through JdbcTemplate as one batch and are not in the count.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(UniformOrderFixture.class)
+class UniformOrderWritePathTests {
+
+	private static final int MAX_ITEMS = 12;
+	private static final int ATTEMPTS = 3;
+
+	@Autowired
+	private UniformOrderFixture fixture;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	void setUp() {
+		fixture.setUp("Write Path", MAX_ITEMS, 2 * ATTEMPTS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		fixture.tearDown();
+	}
+
+	@Test
+	void statementCountDoesNotGrowWithItems() {
+		assertEquals(statementsFor(1), statementsFor(MAX_ITEMS));
+	}
+
+	private long statementsFor(int items) {
+		// Statistics are global, the fewest of a few orders leaves out statements from scheduled jobs
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long fewest = Long.MAX_VALUE;
+		for (int i = 0; i < ATTEMPTS; i++) {
+			statistics.clear();
+			fixture.order(items);
+			fewest = Math.min(fewest, statistics.getPrepareStatementCount());
+		}
+		return fewest;
+	}
+
+}
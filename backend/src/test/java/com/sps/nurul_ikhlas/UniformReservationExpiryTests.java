@@ -0,0 +1,114 @@
+package com.sps.nurul_ikhlas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sps.nurul_ikhlas.models.entities.Uniform;
+import com.sps.nurul_ikhlas.models.entities.UniformOrder;
+import com.sps.nurul_ikhlas.models.entities.UniformReservation;
+import com.sps.nurul_ikhlas.models.enums.PaymentStatus;
+import com.sps.nurul_ikhlas.repositories.UniformOrderRepository;
+import com.sps.nurul_ikhlas.repositories.UniformRepository;
+import com.sps.nurul_ikhlas.repositories.UniformReservationRepository;
+import com.sps.nurul_ikhlas.services.UniformReservationService;
+
+@SpringBootTest
+@Import(UniformOrderFixture.class)
+class UniformReservationExpiryTests {
+
+	@Autowired
+	private UniformOrderFixture fixture;
+
+	@Autowired
+	private UniformReservationService uniformReservationService;
+
+	@Autowired
+	private UniformRepository uniformRepository;
+
+	@Autowired
+	private UniformOrderRepository uniformOrderRepository;
+
+	@Autowired
+	private UniformReservationRepository uniformReservationRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		fixture.setUp("Expiry Test", 1, 1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		fixture.tearDown();
+	}
+
+	@Test
+	void orderPaidAfterItsStockWasResoldIsFlaggedInsteadOfOverselling() {
+		UniformOrder late = fixture.order(1);
+		expireReservations();
+		UniformOrder current = fixture.order(1);
+
+		pay(late);
+
+		Uniform updated = fixture.uniform(0);
+		assertEquals(1, updated.getStock());
+		assertEquals(1, updated.getReservedStock());
+		assertNotNull(uniformOrderRepository.findById(late.getId()).orElseThrow().getStockShortageAt());
+
+		pay(current);
+
+		updated = fixture.uniform(0);
+		assertEquals(0, updated.getStock());
+		assertEquals(0, updated.getReservedStock());
+		assertNull(uniformOrderRepository.findById(current.getId()).orElseThrow().getStockShortageAt());
+	}
+
+	@Test
+	void orderPaidAfterExpiryTakesStockThatIsStillAvailable() {
+		UniformOrder late = fixture.order(1);
+		expireReservations();
+
+		pay(late);
+
+		Uniform updated = fixture.uniform(0);
+		assertEquals(0, updated.getStock());
+		assertEquals(0, updated.getReservedStock());
+		assertNull(uniformOrderRepository.findById(late.getId()).orElseThrow().getStockShortageAt());
+	}
+
+	// Does what the sweeper does, but only to this test's reservations
+	private void expireReservations() {
+		List<UniformReservation> reservations = fixture.reservations();
+		SortedMap<String, Integer> held = new TreeMap<>();
+		reservations.forEach(reservation -> held.merge(reservation.getUniformId(), reservation.getQuantity(),
+				Integer::sum));
+		uniformRepository.releaseStocks(held);
+		uniformReservationRepository.deleteAll(reservations);
+	}
+
+	private void pay(UniformOrder order) {
+		UniformOrder stored = uniformOrderRepository.findById(order.getId()).orElseThrow();
+		stored.setTotalPaid(stored.getTotalAmount());
+		stored.setPaymentStatus(PaymentStatus.PAID);
+		uniformOrderRepository.save(stored);
+		// Runs inside the webhook's transaction in production
+		transactionTemplate.executeWithoutResult(
+				status -> uniformReservationService.confirmPaid(List.of(order.getId())));
+	}
+
+}
@@ -0,0 +1,44 @@
+import api from "./axios";
+
+const POLL_INTERVAL_MS = 1000;
+const POLL_TIMEOUT_MS = 30000;
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+// Payment endpoints return the transaction before its Xendit invoice exists.
+// Polls until the invoice URL is filled in, invoice creation failed, or the
+// timeout passes, and returns the latest transaction.
+export async function waitForPaymentUrl(transaction) {
+  let current = transaction;
+  const deadline = Date.now() + POLL_TIMEOUT_MS;
+
+  while (current?.id && !current.xenditPaymentUrl && current.status === "PENDING" && Date.now() < deadline) {
+    await sleep(POLL_INTERVAL_MS);
+    const response = await api.get(`/parent/payments/${current.id}`);
+    current = response.data?.data;
+  }
+
+  return current;
+}
+
+// Sends a payment POST with an Idempotency-Key. The key is kept only when no
+// response came back, so retrying after a network error returns the same
+// transaction instead of creating a second invoice.
+export async function postPayment(url, body, keyRef) {
+  if (!keyRef.current) {
+    keyRef.current = crypto.randomUUID();
+  }
+
+  try {
+    const response = await api.post(url, body, {
+      headers: { "Idempotency-Key": keyRef.current },
+    });
+    keyRef.current = null;
+    return await waitForPaymentUrl(response.data?.data);
+  } catch (err) {
+    if (err.response) {
+      keyRef.current = null;
+    }
+    throw err;
+  }
+}
@@ -1,27 +1,45 @@
 import { useState, useEffect } from 'react';
 import api from '../../lib/axios';
 import { Card, CardContent, CardHeader, CardTitle } from '../../components/ui/card';
+import { Button } from '../../components/ui/button';
 import { Loader2, AlertTriangle, TrendingDown } from 'lucide-react';
 
+const PAGE_SIZE = 50;
+
 export default function ArrearsReport() {
     const [arrears, setArrears] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [snapshotAt, setSnapshotAt] = useState(null);
 
     useEffect(() => {
         fetchArrears();
     }, []);
 
-    const fetchArrears = async () => {
+    const fetchArrears = async (cursor = null) => {
         try {
-            const response = await api.get('/admin/finance/arrears');
-            setArrears(response.data?.data || []);
+            const params = { size: PAGE_SIZE };
+            if (cursor) params.cursor = cursor;
+
+            const response = await api.get('/admin/finance/arrears/page', { params });
+            const page = response.data?.data;
+            setArrears((prev) => cursor ? [...prev, ...(page?.items || [])] : (page?.items || []));
+            setNextCursor(page?.hasMore ? page.nextCursor : null);
+            setSnapshotAt(page?.snapshotAt || null);
         } catch (error) {
             console.error("Failed to fetch arrears", error);
         } finally {
             setLoading(false);
+            setLoadingMore(false);
         }
     };
 
+    const loadMore = () => {
+        setLoadingMore(true);
+        fetchArrears(nextCursor);
+    };
+
     const formatRupiah = (amount) => {
         return new Intl.NumberFormat('id-ID', {
             style: 'currency',
@@ -37,6 +55,11 @@ export default function ArrearsReport() {
             <div>
                 <h1 className="text-3xl font-bold tracking-tight">Laporan Tunggakan SPP</h1>
                 <p className="text-gray-500">Daftar siswa dengan tunggakan pembayaran SPP.</p>
+                {snapshotAt && (
+                    <p className="text-xs text-gray-400">
+                        Data per {new Date(snapshotAt).toLocaleString('id-ID')}
+                    </p>
+                )}
             </div>
 
             {/* Summary Card */}
@@ -47,7 +70,7 @@ export default function ArrearsReport() {
                         <AlertTriangle className="h-4 w-4 text-red-500" />
                     </CardHeader>
                     <CardContent>
-                        <div className="text-2xl font-bold text-red-600">{arrears.length}</div>
+                        <div className="text-2xl font-bold text-red-600">{arrears.length}{nextCursor ? '+' : ''}</div>
                     </CardContent>
                 </Card>
                 <Card>
@@ -109,6 +132,14 @@ export default function ArrearsReport() {
                                     )}
                                 </tbody>
                             </table>
+                            {nextCursor && (
+                                <div className="flex justify-center p-4">
+                                    <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                                        {loadingMore && <Loader2 className="mr-2 h-4 w-4 animate-spin" />}
+                                        Muat lebih banyak
+                                    </Button>
+                                </div>
+                            )}
                         </div>
                     )}
                 </CardContent>
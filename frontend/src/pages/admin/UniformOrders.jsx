@@ -2,30 +2,52 @@ import { useState, useEffect } from 'react';
 import api from '../../lib/axios';
 import { Card, CardContent, CardHeader, CardTitle } from '../../components/ui/card';
 import { Button } from '../../components/ui/button';
+import { Input } from '../../components/ui/input';
 import { Select } from '../../components/ui/select';
-import { Loader2, Package, CheckCircle, Clock, XCircle, Truck } from 'lucide-react';
+import { Loader2, Package, CheckCircle, Clock, XCircle, Truck, AlertTriangle } from 'lucide-react';
+
+const PAGE_SIZE = 20;
 
 export default function UniformOrders() {
     const [orders, setOrders] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [nextCursor, setNextCursor] = useState(null);
     const [filter, setFilter] = useState('');
+    const [paymentFilter, setPaymentFilter] = useState('');
+    const [fromDate, setFromDate] = useState('');
+    const [toDate, setToDate] = useState('');
 
     useEffect(() => {
         fetchOrders();
-    }, [filter]);
+    }, [filter, paymentFilter, fromDate, toDate]);
 
-    const fetchOrders = async () => {
+    const fetchOrders = async (cursor = null) => {
         try {
-            const params = filter ? `?status=${filter}` : '';
-            const response = await api.get(`/admin/orders/uniform${params}`);
-            setOrders(response.data?.data || []);
+            const params = { size: PAGE_SIZE };
+            if (filter) params.status = filter;
+            if (paymentFilter) params.paymentStatus = paymentFilter;
+            if (fromDate) params.from = fromDate;
+            if (toDate) params.to = toDate;
+            if (cursor) params.cursor = cursor;
+
+            const response = await api.get('/admin/orders/uniform/page', { params });
+            const page = response.data?.data;
+            setOrders((prev) => cursor ? [...prev, ...(page?.items || [])] : (page?.items || []));
+            setNextCursor(page?.hasMore ? page.nextCursor : null);
         } catch (error) {
             console.error("Failed to fetch orders", error);
         } finally {
             setLoading(false);
+            setLoadingMore(false);
         }
     };
 
+    const loadMore = () => {
+        setLoadingMore(true);
+        fetchOrders(nextCursor);
+    };
+
     const handleStatusChange = async (orderId, newStatus) => {
         try {
             await api.put(`/admin/orders/uniform/${orderId}/status?status=${newStatus}`);
@@ -81,13 +103,23 @@ export default function UniformOrders() {
                     <h1 className="text-3xl font-bold tracking-tight">Pesanan Seragam</h1>
                     <p className="text-gray-500">Kelola pesanan seragam dari orang tua.</p>
                 </div>
-                <Select value={filter} onChange={(e) => setFilter(e.target.value)} className="w-48">
-                    <option value="">Semua Status</option>
-                    <option value="PENDING">Pending</option>
-                    <option value="READY_TO_PICKUP">Siap Diambil</option>
-                    <option value="TAKEN">Sudah Diambil</option>
-                    <option value="CANCELLED">Dibatalkan</option>
-                </Select>
+                <div className="flex gap-2">
+                    <Input type="date" value={fromDate} onChange={(e) => setFromDate(e.target.value)} className="w-40" />
+                    <Input type="date" value={toDate} onChange={(e) => setToDate(e.target.value)} className="w-40" />
+                    <Select value={paymentFilter} onChange={(e) => setPaymentFilter(e.target.value)} className="w-40">
+                        <option value="">Semua Pembayaran</option>
+                        <option value="UNPAID">Belum Lunas</option>
+                        <option value="PARTIAL">Cicilan</option>
+                        <option value="PAID">Lunas</option>
+                    </Select>
+                    <Select value={filter} onChange={(e) => setFilter(e.target.value)} className="w-48">
+                        <option value="">Semua Status</option>
+                        <option value="PENDING">Pending</option>
+                        <option value="READY_TO_PICKUP">Siap Diambil</option>
+                        <option value="TAKEN">Sudah Diambil</option>
+                        <option value="CANCELLED">Dibatalkan</option>
+                    </Select>
+                </div>
             </div>
 
             <Card>
@@ -122,7 +154,7 @@ export default function UniformOrders() {
                                                     day: 'numeric', month: 'short', year: 'numeric'
                                                 })}
                                             </td>
-                                            <td className="p-4 font-medium">{order.student?.person?.fullName || '-'}</td>
+                                            <td className="p-4 font-medium">{order.studentName || '-'}</td>
                                             <td className="p-4 text-sm text-gray-500">
                                                 {order.items?.length || 0} item
                                             </td>
@@ -130,7 +162,16 @@ export default function UniformOrders() {
                                                 {formatRupiah(order.totalAmount)}
                                             </td>
                                             <td className="p-4">{getPaymentBadge(order.paymentStatus)}</td>
-                                            <td className="p-4">{getOrderStatusBadge(order.orderStatus)}</td>
+                                            <td className="p-4">
+                                                <div className="flex flex-col items-start gap-1">
+                                                    {getOrderStatusBadge(order.orderStatus)}
+                                                    {order.stockShortageAt && (
+                                                        <span className="inline-flex items-center gap-1 rounded-full px-2 py-0.5 text-xs font-semibold bg-orange-100 text-orange-800">
+                                                            <AlertTriangle className="h-3 w-3" /> Stok Kurang
+                                                        </span>
+                                                    )}
+                                                </div>
+                                            </td>
                                             <td className="p-4">
                                                 <Select
                                                     value={order.orderStatus}
@@ -149,6 +190,14 @@ export default function UniformOrders() {
                                     )}
                                 </tbody>
                             </table>
+                            {nextCursor && (
+                                <div className="flex justify-center p-4">
+                                    <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                                        {loadingMore && <Loader2 className="mr-2 h-4 w-4 animate-spin" />}
+                                        Muat lebih banyak
+                                    </Button>
+                                </div>
+                            )}
                         </div>
                     )}
                 </CardContent>
@@ -1,6 +1,7 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import api from '../../lib/axios';
+import { postPayment } from '../../lib/payment';
 import { Button } from '../../components/ui/button';
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from '../../components/ui/card';
 import { Loader2, ArrowLeft, CreditCard, CheckCircle, Clock, AlertTriangle, Wallet, AlertCircle, ShoppingCart } from 'lucide-react';
@@ -9,6 +10,7 @@ export default function MonthlyPayment() {
     const navigate = useNavigate();
     const [loading, setLoading] = useState(true);
     const [submitting, setSubmitting] = useState(false);
+    const idempotencyKey = useRef(null);
     const [error, setError] = useState('');
     const [data, setData] = useState(null);
     const [activeTab, setActiveTab] = useState('unpaid');
@@ -86,13 +88,14 @@ export default function MonthlyPayment() {
         setError('');
 
         try {
-            const response = await api.post('/parent/payments/pay-bills', {
+            const transaction = await postPayment('/parent/payments/pay-bills', {
                 items: selectedItems
-            });
-            const transaction = response.data?.data;
+            }, idempotencyKey);
 
             if (transaction?.xenditPaymentUrl) {
                 window.location.href = transaction.xenditPaymentUrl;
+            } else if (transaction?.status === 'FAILED') {
+                setError("Gagal membuat invoice pembayaran. Silakan coba lagi.");
             } else {
                 fetchData();
                 setSelectedItems([]);
@@ -1,6 +1,7 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import api from '../../lib/axios';
+import { postPayment } from '../../lib/payment';
 import { Button } from '../../components/ui/button';
 import { Card, CardContent, CardHeader, CardTitle, CardDescription, CardFooter } from '../../components/ui/card';
 import { Input } from '../../components/ui/input';
@@ -18,6 +19,7 @@ export default function MyOrders() {
     const [selectedOrder, setSelectedOrder] = useState(null);
     const [payAmount, setPayAmount] = useState(0);
     const [submitting, setSubmitting] = useState(false);
+    const idempotencyKey = useRef(null);
 
     useEffect(() => {
         fetchOrders();
@@ -70,15 +72,16 @@ export default function MyOrders() {
         setError('');
 
         try {
-            const response = await api.post('/parent/payments/create', {
+            const transaction = await postPayment('/parent/payments/create', {
                 orderId: selectedOrder.id,
                 amount: payAmount,
                 paymentType: 'UNIFORM'
-            });
+            }, idempotencyKey);
 
-            const transaction = response.data?.data;
             if (transaction?.xenditPaymentUrl) {
                 window.location.href = transaction.xenditPaymentUrl;
+            } else if (transaction?.status === 'FAILED') {
+                setError("Gagal membuat invoice pembayaran. Silakan coba lagi.");
             } else {
                 closeModal();
                 fetchOrders();
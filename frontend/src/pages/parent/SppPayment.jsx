@@ -1,6 +1,7 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import api from '../../lib/axios';
+import { postPayment } from '../../lib/payment';
 import { Button } from '../../components/ui/button';
 import { Card, CardContent, CardHeader, CardTitle, CardDescription, CardFooter } from '../../components/ui/card';
 import { Input } from '../../components/ui/input';
@@ -11,6 +12,7 @@ export default function SppPayment() {
     const navigate = useNavigate();
     const [loading, setLoading] = useState(true);
     const [submitting, setSubmitting] = useState(false);
+    const idempotencyKey = useRef(null);
     const [error, setError] = useState('');
     const [sppInfo, setSppInfo] = useState(null);
     const [history, setHistory] = useState([]);
@@ -51,11 +53,12 @@ export default function SppPayment() {
         setError('');
 
         try {
-            const response = await api.post('/parent/payments/spp', { months });
-            const transaction = response.data?.data;
+            const transaction = await postPayment('/parent/payments/spp', { months }, idempotencyKey);
 
             if (transaction?.xenditPaymentUrl) {
                 window.location.href = transaction.xenditPaymentUrl;
+            } else if (transaction?.status === 'FAILED') {
+                setError("Gagal membuat invoice pembayaran. Silakan coba lagi.");
             } else {
                 fetchData();
             }
@@ -72,6 +75,7 @@ export default function SppPayment() {
             PENDING: { color: 'bg-yellow-100 text-yellow-800', icon: Clock },
             PAID: { color: 'bg-green-100 text-green-800', icon: CheckCircle },
             EXPIRED: { color: 'bg-gray-100 text-gray-800', icon: AlertTriangle },
+            FAILED: { color: 'bg-red-100 text-red-800', icon: AlertTriangle },
         };
         const s = styles[status] || styles.PENDING;
         const Icon = s.icon;
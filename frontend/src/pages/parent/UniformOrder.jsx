@@ -33,7 +33,7 @@ export default function UniformOrder() {
     const addToCart = (uniform) => {
         const existingItem = cart.find(item => item.uniformId === uniform.id);
         if (existingItem) {
-            if (existingItem.quantity < uniform.stock) {
+            if (existingItem.quantity < uniform.availableStock) {
                 setCart(cart.map(item =>
                     item.uniformId === uniform.id
                         ? { ...item, quantity: item.quantity + 1 }
@@ -46,7 +46,7 @@ export default function UniformOrder() {
                 name: uniform.name,
                 size: uniform.size,
                 price: uniform.price,
-                stock: uniform.stock,
+                stock: uniform.availableStock,
                 quantity: 1
             }]);
         }
@@ -149,8 +149,8 @@ export default function UniformOrder() {
                                                 {uniform.size}
                                             </span>
                                         </div>
-                                        <span className={`text-xs ${uniform.stock < 5 ? 'text-red-500' : 'text-green-600'}`}>
-                                            Stok: {uniform.stock}
+                                        <span className={`text-xs ${uniform.availableStock < 5 ? 'text-red-500' : 'text-green-600'}`}>
+                                            Stok: {uniform.availableStock}
                                         </span>
                                     </div>
                                     <p className="text-lg font-bold text-blue-600">{formatRupiah(uniform.price)}</p>
@@ -160,7 +160,7 @@ export default function UniformOrder() {
                                                 <Minus className="h-4 w-4" />
                                             </Button>
                                             <span className="font-medium">{inCart.quantity}</span>
-                                            <Button variant="outline" size="icon" onClick={() => updateQuantity(uniform.id, 1)} disabled={inCart.quantity >= uniform.stock}>
+                                            <Button variant="outline" size="icon" onClick={() => updateQuantity(uniform.id, 1)} disabled={inCart.quantity >= uniform.availableStock}>
                                                 <Plus className="h-4 w-4" />
                                             </Button>
                                             <Button variant="destructive" size="icon" onClick={() => removeFromCart(uniform.id)}>
@@ -168,7 +168,7 @@ export default function UniformOrder() {
                                             </Button>
                                         </div>
                                     ) : (
-                                        <Button className="w-full mt-2" onClick={() => addToCart(uniform)} disabled={uniform.stock === 0}>
+                                        <Button className="w-full mt-2" onClick={() => addToCart(uniform)} disabled={uniform.availableStock === 0}>
                                             <Plus className="mr-2 h-4 w-4" /> Tambah
                                         </Button>
                                     )}